@@ -1,8 +1,19 @@
 package com.sust.hall.controller;
 
+import com.sust.hall.dto.BulkUserActionRequest;
+import com.sust.hall.dto.BulkUserActionResult;
+import com.sust.hall.dto.CursorPage;
+import com.sust.hall.dto.SeatAllocationRequest;
+import com.sust.hall.dto.SeatAllocationResult;
+import com.sust.hall.dto.UserSummaryDTO;
 import com.sust.hall.entity.User;
 import com.sust.hall.enums.AccountStatus;
 import com.sust.hall.enums.UserRole;
+import com.sust.hall.repository.UserRepository.UserSort;
+import com.sust.hall.security.BoundedPasswordEncoder;
+import com.sust.hall.security.UserPrincipalCache;
+import com.sust.hall.service.MealRollupService;
+import com.sust.hall.service.SeatAllocationService;
 import com.sust.hall.service.UserService;
 
 import lombok.RequiredArgsConstructor;
@@ -12,6 +23,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/admin")
@@ -20,18 +32,31 @@ import java.util.List;
 public class AdminController {
 
     private final UserService userService;
+    private final UserPrincipalCache principalCache;
+    private final BoundedPasswordEncoder passwordEncoder;
+    private final SeatAllocationService seatAllocationService;
+    private final MealRollupService mealRollupService;
 
     
 
     
     @GetMapping("/pending-users")
-    public ResponseEntity<List<User>> getPendingUsers() {
+    public ResponseEntity<List<UserSummaryDTO>> getPendingUsers() {
         return ResponseEntity.ok(userService.getPendingUsers());
     }
 
+    @GetMapping("/pending-users/page")
+    public ResponseEntity<CursorPage<UserSummaryDTO>> getPendingUserPage(
+            @RequestParam(required = false) String hallName,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(userService.getUserPage(hallName, null, AccountStatus.PENDING,
+                UserSort.NEWEST, cursor, limit));
+    }
+
     
     @GetMapping("/users/status/{status}")
-    public ResponseEntity<List<User>> getUsersByStatus(@PathVariable AccountStatus status) {
+    public ResponseEntity<List<UserSummaryDTO>> getUsersByStatus(@PathVariable AccountStatus status) {
         return ResponseEntity.ok(userService.getUsersByStatus(status));
     }
 
@@ -68,10 +93,61 @@ public class AdminController {
 
     
     @GetMapping("/users")
-    public ResponseEntity<List<User>> getAllUsers() {
+    public ResponseEntity<List<UserSummaryDTO>> getAllUsers() {
         return ResponseEntity.ok(userService.getAllUsers());
     }
 
+    @GetMapping("/users/page")
+    public ResponseEntity<CursorPage<UserSummaryDTO>> getUserPage(
+            @RequestParam(required = false) String hallName,
+            @RequestParam(required = false) UserRole role,
+            @RequestParam(required = false) AccountStatus status,
+            @RequestParam(required = false) UserSort sort,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(userService.getUserPage(hallName, role, status, sort, cursor, limit));
+    }
+
+    @PostMapping("/halls/allocate")
+    public ResponseEntity<SeatAllocationResult> allocateSeats(@RequestBody SeatAllocationRequest request) {
+        return ResponseEntity.ok(seatAllocationService.allocate(request));
+    }
+
+    @PostMapping("/meals/rollups/backfill")
+    public ResponseEntity<Map<String, Object>> backfillMealRollups() {
+        return ResponseEntity.ok(Map.of("days", mealRollupService.backfill()));
+    }
+
+    @PostMapping("/users/bulk/approve")
+    public ResponseEntity<BulkUserActionResult> bulkApprove(@RequestBody BulkUserActionRequest request) {
+        return ResponseEntity.ok(userService.bulkUpdateStatus(request, AccountStatus.APPROVED));
+    }
+
+    @PostMapping("/users/bulk/reject")
+    public ResponseEntity<BulkUserActionResult> bulkReject(@RequestBody BulkUserActionRequest request) {
+        return ResponseEntity.ok(userService.bulkUpdateStatus(request, AccountStatus.REJECTED));
+    }
+
+    @PostMapping("/users/bulk/suspend")
+    public ResponseEntity<BulkUserActionResult> bulkSuspend(@RequestBody BulkUserActionRequest request) {
+        return ResponseEntity.ok(userService.bulkUpdateStatus(request, AccountStatus.SUSPENDED));
+    }
+
+    @PutMapping("/users/bulk/role")
+    public ResponseEntity<BulkUserActionResult> bulkUpdateRole(@RequestBody BulkUserActionRequest request) {
+        return ResponseEntity.ok(userService.bulkUpdateRole(request));
+    }
+
+    @GetMapping("/metrics/principal-cache")
+    public ResponseEntity<Map<String, Object>> getPrincipalCacheStats() {
+        return ResponseEntity.ok(principalCache.getStats());
+    }
+
+    @GetMapping("/metrics/password-hashing")
+    public ResponseEntity<Map<String, Object>> getPasswordHashingStats() {
+        return ResponseEntity.ok(passwordEncoder.getStats());
+    }
+
     
     public static class UserRoleUpdateRequest {
         private UserRole role;
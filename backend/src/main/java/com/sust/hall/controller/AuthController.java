@@ -6,15 +6,19 @@ import com.sust.hall.dto.Response;
 import com.sust.hall.entity.User;
 import com.sust.hall.enums.UserRole;
 import com.sust.hall.exeptions.NotFoundException;
-import com.sust.hall.repository.UserRepository;
+import com.sust.hall.security.CustomUserDetails;
+import com.sust.hall.security.CustomUserDetailsService;
+import com.sust.hall.security.LoginRateLimiter;
 import com.sust.hall.service.UserService;
 
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.web.bind.annotation.*;
 
 
@@ -27,23 +31,35 @@ import org.springframework.web.bind.annotation.*;
 public class AuthController {
 
     private final UserService userService;
-    private final UserRepository userRepository;
+    private final CustomUserDetailsService userDetailsService;
+    private final LoginRateLimiter loginRateLimiter;
 
     @PostMapping("/register")
-    public ResponseEntity<Response<?>> registerUser(@RequestBody RegisterRequest registerRequest) {
+    public ResponseEntity<Response<?>> registerUser(@RequestBody RegisterRequest registerRequest,
+            HttpServletRequest request) {
         log.info("/register was hit ");
+        loginRateLimiter.checkRegister(request.getRemoteAddr());
         return ResponseEntity.ok(userService.registerUser(registerRequest));
     }
 
     @PostMapping("/login")
-    public ResponseEntity<Response<?>> login(@RequestBody LoginRequest loginRequest) {
+    public ResponseEntity<Response<?>> login(@RequestBody LoginRequest loginRequest, HttpServletRequest request) {
+        // Throttle before any BCrypt work is done
+        loginRateLimiter.checkLogin(loginRequest.getEmail(), request.getRemoteAddr());
         return ResponseEntity.status(200).body(userService.login(loginRequest));
     }
 
     @GetMapping("/me")
     public ResponseEntity<User> getCurrentUser(@AuthenticationPrincipal UserDetails userDetails) {
-        User user = userRepository.findByEmail(userDetails.getUsername())
-                .orElseThrow(()-> new NotFoundException("No logged in user found"));
-        return ResponseEntity.ok(user);
+        if (userDetails == null) {
+            throw new NotFoundException("No logged in user found");
+        }
+        try {
+            // Served from the principal cache the auth filter has just warmed
+            CustomUserDetails details = (CustomUserDetails) userDetailsService.loadUserByUsername(userDetails.getUsername());
+            return ResponseEntity.ok(details.getUser());
+        } catch (UsernameNotFoundException e) {
+            throw new NotFoundException("No logged in user found");
+        }
     }
 }
\ No newline at end of file
@@ -3,9 +3,11 @@ package com.sust.hall.controller;
 import com.sust.hall.dto.*;
 import com.sust.hall.service.ComplaintService;
 import jakarta.validation.Valid;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -37,6 +39,21 @@ public class ComplaintController {
         return ResponseEntity.ok(complaintService.getAllComplaints());
     }
 
+    // Staff work queue: URGENT first, then oldest first, one keyset page at a time
+    @GetMapping("/queue")
+    public ResponseEntity<CursorPage<ComplaintResponseDTO>> getQueue(
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) String priority,
+            @RequestParam(required = false) String hallName,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(complaintService.getComplaintQueue(status, category, priority, hallName, from, to,
+                cursor, limit));
+    }
+
     // Get complaints for a specific user
     @GetMapping("/user/{userId}")
     public ResponseEntity<List<ComplaintResponseDTO>> getUserComplaints(@PathVariable Long userId) {
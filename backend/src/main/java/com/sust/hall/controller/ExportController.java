@@ -0,0 +1,70 @@
+package com.sust.hall.controller;
+
+import com.sust.hall.entity.Complaint;
+import com.sust.hall.enums.AccountStatus;
+import com.sust.hall.enums.MealType;
+import com.sust.hall.enums.UserRole;
+import com.sust.hall.service.ExportService;
+import com.sust.hall.service.ExportService.Format;
+
+import lombok.RequiredArgsConstructor;
+
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDateTime;
+
+@RestController
+@RequestMapping("/api/admin/export")
+@RequiredArgsConstructor
+public class ExportController {
+
+    private final ExportService exportService;
+
+    @GetMapping("/users")
+    public ResponseEntity<StreamingResponseBody> exportUsers(
+            @RequestParam(required = false) String format,
+            @RequestParam(required = false) String hallName,
+            @RequestParam(required = false) UserRole role,
+            @RequestParam(required = false) AccountStatus status) {
+        Format exportFormat = Format.parse(format);
+        return streamed("users", exportFormat,
+                exportService.exportUsers(exportFormat, hallName, role, status));
+    }
+
+    @GetMapping("/complaints")
+    public ResponseEntity<StreamingResponseBody> exportComplaints(
+            @RequestParam(required = false) String format,
+            @RequestParam(required = false) Complaint.Status status,
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        Format exportFormat = Format.parse(format);
+        return streamed("complaints", exportFormat,
+                exportService.exportComplaints(exportFormat, status, category, from, to));
+    }
+
+    @GetMapping("/meals")
+    public ResponseEntity<StreamingResponseBody> exportMeals(
+            @RequestParam(required = false) String format,
+            @RequestParam(required = false) String hallName,
+            @RequestParam(required = false) MealType mealType,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        Format exportFormat = Format.parse(format);
+        return streamed("meals", exportFormat,
+                exportService.exportMeals(exportFormat, hallName, mealType, from, to));
+    }
+
+    private ResponseEntity<StreamingResponseBody> streamed(String name, Format format, StreamingResponseBody body) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(format.getContentType() + ";charset=UTF-8"))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"" + name + "." + format.getExtension() + "\"")
+                .body(body);
+    }
+}
@@ -1,12 +1,17 @@
 package com.sust.hall.controller;
 
+import com.sust.hall.dto.OccupancyChangeDTO;
 import com.sust.hall.entity.Hall;
 import com.sust.hall.enums.HallType;
+import com.sust.hall.enums.OccupancyResolution;
 import com.sust.hall.service.HallService;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/halls")
@@ -122,6 +127,46 @@ public class HallController {
         }
     }
 
+    @PostMapping("/{id}/check-in")
+    public ResponseEntity<?> checkIn(@PathVariable Long id, @RequestParam(defaultValue = "1") int count) {
+        try {
+            return ResponseEntity.ok(hallService.checkIn(id, count));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @PostMapping("/{id}/check-out")
+    public ResponseEntity<?> checkOut(@PathVariable Long id, @RequestParam(defaultValue = "1") int count) {
+        try {
+            return ResponseEntity.ok(hallService.checkOut(id, count));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @PostMapping("/occupancy/batch")
+    public ResponseEntity<?> applyOccupancyChanges(@RequestBody List<OccupancyChangeDTO> changes) {
+        try {
+            Map<Long, Integer> occupancies = hallService.applyOccupancyChanges(changes);
+            return ResponseEntity.ok(occupancies);
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @GetMapping("/{id}/occupancy/history")
+    public ResponseEntity<?> getOccupancyHistory(@PathVariable Long id,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) OccupancyResolution resolution) {
+        try {
+            return ResponseEntity.ok(hallService.getOccupancyHistory(id, from, to, resolution));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
     @GetMapping("/statistics/capacity")
     public ResponseEntity<Integer> getTotalCapacity() {
         return ResponseEntity.ok(hallService.getTotalCapacity());
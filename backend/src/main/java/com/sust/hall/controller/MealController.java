@@ -1,12 +1,22 @@
 package com.sust.hall.controller;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import com.sust.hall.dto.CursorPage;
+import com.sust.hall.dto.MealBatchResult;
+import com.sust.hall.dto.MealCloneRequest;
 import com.sust.hall.dto.MealDTO;
+import com.sust.hall.dto.MealRollupDTO;
+import com.sust.hall.enums.MealRollupPeriod;
 import com.sust.hall.enums.MealType;
+import com.sust.hall.exeptions.BadRequestException;
+import com.sust.hall.repository.MealSearchRepository.MealSort;
 import com.sust.hall.service.MealService;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.HashMap;
 import java.util.Map;
@@ -52,6 +62,12 @@ public ResponseEntity<?> createMeal(@Valid @RequestBody MealDTO mealDTO) {
         errorResponse.put("message", e.getMessage());
         return ResponseEntity.status(HttpStatus.NOT_FOUND).body(errorResponse);
         
+    } catch (BadRequestException e) {
+        Map<String, Object> errorResponse = new HashMap<>();
+        errorResponse.put("success", false);
+        errorResponse.put("message", e.getMessage());
+        return ResponseEntity.badRequest().body(errorResponse);
+
     } catch (Exception e) {
         logger.error("Error creating meal: {}", mealDTO.getMealName(), e);
         return errorResponse("Error creating meal", e);
@@ -60,23 +76,29 @@ public ResponseEntity<?> createMeal(@Valid @RequestBody MealDTO mealDTO) {
 
     // POST - Create multiple meals
     @PostMapping("/batch")
-    public ResponseEntity<?> createMeals(@Valid @RequestBody List<MealDTO> mealDTOs) {
+    public ResponseEntity<?> createMeals(@RequestBody List<MealDTO> mealDTOs,
+            @RequestParam(defaultValue = "ALL_OR_NOTHING") MealBatchResult.Mode mode) {
         try {
-            logger.info("Creating {} meals in batch", mealDTOs.size());
+            logger.info("Creating {} meals in batch ({})", mealDTOs.size(), mode);
             
-            List<MealDTO> createdMeals = mealDTOs.stream()
-                .map(mealService::createMeal)
-                .collect(java.util.stream.Collectors.toList());
+            MealBatchResult result = mealService.createMealsBatch(mealDTOs, mode);
             
-            logger.info("Successfully created {} meals", createdMeals.size());
+            logger.info("Created {} of {} meals, {} invalid", result.getCreated(), result.getRequested(), result.getFailed());
             
             Map<String, Object> response = new HashMap<>();
-            response.put("success", true);
-            response.put("message", "Meals created successfully");
-            response.put("data", createdMeals);
-            response.put("count", createdMeals.size());
+            response.put("success", result.getFailed() == 0);
+            response.put("message", result.getFailed() == 0
+                    ? "Meals created successfully"
+                    : result.getCreated() == 0 ? "No meals were created" : "Some meals could not be created");
+            response.put("data", result.getItems().stream()
+                    .filter(item -> item.getStatus() == MealBatchResult.Status.CREATED)
+                    .map(MealBatchResult.ItemResult::getMeal)
+                    .collect(java.util.stream.Collectors.toList()));
+            response.put("count", result.getCreated());
+            response.put("results", result);
             
-            return ResponseEntity.status(HttpStatus.CREATED).body(response);
+            HttpStatus status = result.getCreated() > 0 || mealDTOs.isEmpty() ? HttpStatus.CREATED : HttpStatus.BAD_REQUEST;
+            return ResponseEntity.status(status).body(response);
             
         } catch (Exception e) {
             logger.error("Error creating batch meals", e);
@@ -84,6 +106,35 @@ public ResponseEntity<?> createMeal(@Valid @RequestBody MealDTO mealDTO) {
         }
     }
 
+    // POST - Clone a date range of meals into another range, for one hall or all
+    @PostMapping("/clone")
+    public ResponseEntity<?> cloneMeals(@RequestBody MealCloneRequest request) {
+        try {
+            int created = mealService.cloneMeals(request);
+            logger.info("Cloned {} meals from [{}, {}) to {}", created, request.getSourceFrom(),
+                    request.getSourceTo(), request.getTargetFrom());
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("message", created > 0 ? "Meals cloned successfully" : "No meals needed cloning");
+            response.put("count", created);
+            return ResponseEntity.status(HttpStatus.CREATED).body(response);
+        } catch (EntityNotFoundException e) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("success", false);
+            errorResponse.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(errorResponse);
+        } catch (BadRequestException e) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("success", false);
+            errorResponse.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(errorResponse);
+        } catch (Exception e) {
+            logger.error("Error cloning meals", e);
+            return errorResponse("Error cloning meals", e);
+        }
+    }
+
     // PUT - Update an existing meal
     @PutMapping("/{id}")
 public ResponseEntity<?> updateMeal(@PathVariable Long id, @Valid @RequestBody MealDTO mealDTO) {
@@ -108,6 +159,12 @@ public ResponseEntity<?> updateMeal(@PathVariable Long id, @Valid @RequestBody M
         errorResponse.put("message", e.getMessage());
         return ResponseEntity.status(HttpStatus.NOT_FOUND).body(errorResponse);
         
+    } catch (BadRequestException e) {
+        Map<String, Object> errorResponse = new HashMap<>();
+        errorResponse.put("success", false);
+        errorResponse.put("message", e.getMessage());
+        return ResponseEntity.badRequest().body(errorResponse);
+
     } catch (Exception e) {
         logger.error("Error updating meal with ID: {}", id, e);
         return errorResponse("Error updating meal", e);
@@ -203,6 +260,12 @@ public ResponseEntity<?> updateMeal(@PathVariable Long id, @Valid @RequestBody M
             errorResponse.put("message", e.getMessage());
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(errorResponse);
             
+        } catch (BadRequestException e) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("success", false);
+            errorResponse.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(errorResponse);
+
         } catch (Exception e) {
             logger.error("Error deleting meal with ID: {}", id, e);
             return errorResponse("Error deleting meal", e);
@@ -276,6 +339,71 @@ public ResponseEntity<?> updateMeal(@PathVariable Long id, @Valid @RequestBody M
         }
     }
 
+    @GetMapping("/search")
+    public ResponseEntity<?> searchMeals(
+            @RequestParam(required = false) String hallName,
+            @RequestParam(required = false) Long hallId,
+            @RequestParam(required = false) MealType mealType,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) Boolean available,
+            @RequestParam(required = false) MealSort sort,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        try {
+            CursorPage<MealDTO> page = mealService.searchMeals(hallName, hallId, mealType, from, to, available,
+                    sort, cursor, limit);
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("data", page.getItems());
+            response.put("count", page.getItems().size());
+            response.put("nextCursor", page.getNextCursor());
+            response.put("hasMore", page.isHasMore());
+            return ResponseEntity.ok(response);
+        } catch (EntityNotFoundException e) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("success", false);
+            errorResponse.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(errorResponse);
+        } catch (BadRequestException e) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("success", false);
+            errorResponse.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(errorResponse);
+        } catch (Exception e) {
+            return errorResponse("Error searching meals", e);
+        }
+    }
+
+    @GetMapping("/analytics")
+    public ResponseEntity<?> getMealAnalytics(
+            @RequestParam(required = false) String hallName,
+            @RequestParam(required = false) MealType mealType,
+            @RequestParam(required = false) MealRollupPeriod period,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        try {
+            List<MealRollupDTO> rollups = mealService.getMealAnalytics(hallName, mealType, period, from, to);
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("data", rollups);
+            response.put("count", rollups.size());
+            return ResponseEntity.ok(response);
+        } catch (EntityNotFoundException e) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("success", false);
+            errorResponse.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(errorResponse);
+        } catch (BadRequestException e) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("success", false);
+            errorResponse.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(errorResponse);
+        } catch (Exception e) {
+            return errorResponse("Error loading meal analytics", e);
+        }
+    }
+
     @GetMapping
     public ResponseEntity<?> getAllMeals() {
         try {
@@ -0,0 +1,31 @@
+package com.sust.hall.controller;
+
+import com.sust.hall.dto.DishRatingDTO;
+import com.sust.hall.dto.MealRatingDTO;
+import com.sust.hall.service.MealRatingService;
+
+import lombok.RequiredArgsConstructor;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/meals")
+@RequiredArgsConstructor
+public class MealRatingController {
+
+    private final MealRatingService ratingService;
+
+    @PostMapping("/{mealId}/ratings/users/{userId}")
+    public ResponseEntity<MealRatingDTO> rate(@PathVariable Long mealId, @PathVariable Long userId,
+            @RequestParam int score) {
+        return ResponseEntity.ok(ratingService.rate(mealId, userId, score));
+    }
+
+    @GetMapping("/ratings/dishes")
+    public ResponseEntity<List<DishRatingDTO>> getDishRatings(@RequestParam(required = false) String hallName) {
+        return ResponseEntity.ok(ratingService.getDishRatings(hallName));
+    }
+}
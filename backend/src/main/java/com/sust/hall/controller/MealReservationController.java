@@ -0,0 +1,39 @@
+package com.sust.hall.controller;
+
+import com.sust.hall.dto.MealReservationDTO;
+import com.sust.hall.security.CustomUserDetails;
+import com.sust.hall.service.MealReservationService;
+
+import lombok.RequiredArgsConstructor;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/meals/{mealId}/reservations")
+@RequiredArgsConstructor
+public class MealReservationController {
+
+    private final MealReservationService reservationService;
+
+    @PostMapping("/users/{userId}")
+    public ResponseEntity<MealReservationDTO> reserve(@PathVariable Long mealId, @PathVariable Long userId,
+            @AuthenticationPrincipal CustomUserDetails principal) {
+        return ResponseEntity.ok(reservationService.reserve(mealId, userId,
+                principal != null ? principal.getUser() : null));
+    }
+
+    @DeleteMapping("/users/{userId}")
+    public ResponseEntity<Void> cancel(@PathVariable Long mealId, @PathVariable Long userId) {
+        reservationService.cancel(mealId, userId);
+        return ResponseEntity.noContent().build();
+    }
+
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> getRemaining(@PathVariable Long mealId) {
+        return ResponseEntity.ok(Map.of("mealId", mealId, "remaining", reservationService.getRemaining(mealId)));
+    }
+}
@@ -10,10 +10,15 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.sust.hall.dto.CursorPage;
+import com.sust.hall.dto.UserSummaryDTO;
 import com.sust.hall.entity.User;
+import com.sust.hall.enums.AccountStatus;
 import com.sust.hall.enums.UserRole;
+import com.sust.hall.repository.UserRepository.UserSort;
 import com.sust.hall.service.UserService;
 
 import lombok.AllArgsConstructor;
@@ -26,22 +31,33 @@ public class UserController {
     private final UserService userService;
 
     @GetMapping
-    public ResponseEntity<List<User>> getAllUsers() {
+    public ResponseEntity<List<UserSummaryDTO>> getAllUsers() {
         return ResponseEntity.ok(userService.getAllUsers());
     }
 
+    @GetMapping("/page")
+    public ResponseEntity<CursorPage<UserSummaryDTO>> getUserPage(
+            @RequestParam(required = false) String hallName,
+            @RequestParam(required = false) UserRole role,
+            @RequestParam(required = false) AccountStatus status,
+            @RequestParam(required = false) UserSort sort,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(userService.getUserPage(hallName, role, status, sort, cursor, limit));
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<User> getUserById(@PathVariable Long id) {
         return ResponseEntity.ok(userService.getUserById(id));
     }
 
     @GetMapping("/hall/{hallName}")
-    public ResponseEntity<List<User>> getUsersByHall(@PathVariable String hallName) {
+    public ResponseEntity<List<UserSummaryDTO>> getUsersByHall(@PathVariable String hallName) {
         return ResponseEntity.ok(userService.getUsersByHall(hallName));
     }
 
     @GetMapping("/role/{role}")
-    public ResponseEntity<List<User>> getUsersByRole(@PathVariable UserRole role) {
+    public ResponseEntity<List<UserSummaryDTO>> getUsersByRole(@PathVariable UserRole role) {
         return ResponseEntity.ok(userService.getUsersByRole(role));
     }
 
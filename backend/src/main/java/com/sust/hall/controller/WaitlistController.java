@@ -0,0 +1,40 @@
+package com.sust.hall.controller;
+
+import com.sust.hall.dto.WaitlistPositionDTO;
+import com.sust.hall.service.WaitlistService;
+
+import lombok.RequiredArgsConstructor;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/waitlist")
+@RequiredArgsConstructor
+public class WaitlistController {
+
+    private final WaitlistService waitlistService;
+
+    @PostMapping("/halls/{hallId}/users/{userId}")
+    public ResponseEntity<WaitlistPositionDTO> join(@PathVariable Long hallId, @PathVariable Long userId) {
+        return ResponseEntity.ok(waitlistService.join(hallId, userId));
+    }
+
+    @DeleteMapping("/halls/{hallId}/users/{userId}")
+    public ResponseEntity<Void> leave(@PathVariable Long hallId, @PathVariable Long userId) {
+        waitlistService.leave(hallId, userId);
+        return ResponseEntity.noContent().build();
+    }
+
+    @GetMapping("/users/{userId}")
+    public ResponseEntity<WaitlistPositionDTO> getPosition(@PathVariable Long userId) {
+        return ResponseEntity.ok(waitlistService.getPosition(userId));
+    }
+
+    @GetMapping("/halls/{hallId}")
+    public ResponseEntity<Map<String, Object>> getWaitingCount(@PathVariable Long hallId) {
+        return ResponseEntity.ok(Map.of("hallId", hallId, "waiting", waitlistService.getWaitingCount(hallId)));
+    }
+}
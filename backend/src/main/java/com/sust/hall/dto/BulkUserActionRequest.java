@@ -0,0 +1,23 @@
+package com.sust.hall.dto;
+
+import com.sust.hall.enums.AccountStatus;
+import com.sust.hall.enums.UserRole;
+import lombok.Data;
+import java.util.List;
+
+/**
+ * Targets for a bulk admin action: either an explicit list of user ids, or a
+ * filter such as "all PENDING users in hall X" when {@code userIds} is empty.
+ */
+@Data
+public class BulkUserActionRequest {
+    private List<Long> userIds;
+
+    // Filter, used only when userIds is empty
+    private String hallName;
+    private AccountStatus status;
+    private UserRole currentRole;
+
+    // New role for the role-change action
+    private UserRole role;
+}
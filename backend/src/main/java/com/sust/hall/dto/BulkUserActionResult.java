@@ -0,0 +1,29 @@
+package com.sust.hall.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkUserActionResult {
+    private int requested;
+    private int updated;
+    private List<Outcome> outcomes;
+
+    public enum Status {
+        UPDATED,
+        UNCHANGED,
+        NOT_FOUND
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Outcome {
+        private Long userId;
+        private Status status;
+    }
+}
@@ -0,0 +1,28 @@
+package com.sust.hall.dto;
+
+import com.sust.hall.entity.Complaint;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import java.time.LocalDateTime;
+
+/**
+ * Flat, unmanaged complaint row for exports. Loaded through a JPQL constructor
+ * projection so streaming it never grows the persistence context.
+ */
+@Data
+@AllArgsConstructor
+public class ComplaintExportRow {
+    private Long id;
+    private String title;
+    private String description;
+    private String category;
+    private Complaint.Priority priority;
+    private Complaint.Status status;
+    private Long userId;
+    private String userName;
+    private String hallName;
+    private String adminResponse;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+    private LocalDateTime resolvedAt;
+}
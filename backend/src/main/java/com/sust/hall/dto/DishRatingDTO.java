@@ -0,0 +1,17 @@
+package com.sust.hall.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/** Ratings of every meal served under one name in a hall. */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DishRatingDTO {
+    private Long hallId;
+    private String hallName;
+    private String mealName;
+    private double averageRating;
+    private long ratingCount;
+}
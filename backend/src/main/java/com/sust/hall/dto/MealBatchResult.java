@@ -0,0 +1,40 @@
+package com.sust.hall.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MealBatchResult {
+    private Mode mode;
+    private int requested;
+    private int created;
+    private int failed;
+    private List<ItemResult> items;
+
+    public enum Mode {
+        // Nothing is written unless every item is valid
+        ALL_OR_NOTHING,
+        // Valid items are written, invalid ones are reported and skipped
+        BEST_EFFORT
+    }
+
+    public enum Status {
+        CREATED,
+        INVALID,
+        SKIPPED
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ItemResult {
+        private int index;
+        private Status status;
+        private MealDTO meal;
+        private String error;
+    }
+}
@@ -0,0 +1,22 @@
+package com.sust.hall.dto;
+
+import lombok.Data;
+import java.time.LocalDateTime;
+
+/**
+ * Copies the meals dated in [{@code sourceFrom}, {@code sourceTo}) so the range
+ * starts at {@code targetFrom}, for one hall or, without {@code hallName}, every
+ * hall. With {@code repeat} above 1 the copy is laid down that many times back to
+ * back, e.g. one week repeated across a semester. {@code price} and
+ * {@code quantity} replace the source values when set.
+ */
+@Data
+public class MealCloneRequest {
+    private String hallName;
+    private LocalDateTime sourceFrom;
+    private LocalDateTime sourceTo;
+    private LocalDateTime targetFrom;
+    private Integer repeat;
+    private Double price;
+    private Integer quantity;
+}
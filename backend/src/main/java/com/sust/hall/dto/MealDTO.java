@@ -2,9 +2,11 @@ package com.sust.hall.dto;
 
 import com.sust.hall.enums.MealType;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 import java.time.LocalDateTime;
 
 @Data
+@NoArgsConstructor
 public class MealDTO {
     private Long id;
     private String hallName; 
@@ -15,6 +17,34 @@ public class MealDTO {
     private Integer quantity;
     private LocalDateTime mealDate;
     private Boolean isAvailable;
+    private Boolean soldOut;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
-}
\ No newline at end of file
+    // Null until the meal has a rating
+    private Double averageRating;
+    private Integer ratingCount;
+
+    // Used by JPQL constructor projections ("SELECT new ...MealDTO(...)")
+    public MealDTO(Long id, String hallName, MealType mealType, String mealName, String description,
+            Double price, Integer quantity, LocalDateTime mealDate, Boolean isAvailable,
+            Boolean soldOut, LocalDateTime createdAt, LocalDateTime updatedAt, Long ratingSum, Integer ratingCount) {
+        this.id = id;
+        this.hallName = hallName;
+        this.mealType = mealType;
+        this.mealName = mealName;
+        this.description = description;
+        this.price = price;
+        this.quantity = quantity;
+        this.mealDate = mealDate;
+        this.isAvailable = isAvailable;
+        this.soldOut = soldOut;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+        setRating(ratingSum, ratingCount);
+    }
+
+    public void setRating(Long ratingSum, Integer ratingCount) {
+        this.ratingCount = ratingCount != null ? ratingCount : 0;
+        this.averageRating = ratingSum != null && this.ratingCount > 0 ? ratingSum / (double) this.ratingCount : null;
+    }
+}
@@ -0,0 +1,14 @@
+package com.sust.hall.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MealRatingDTO {
+    private Long mealId;
+    private Long userId;
+    private int score;
+}
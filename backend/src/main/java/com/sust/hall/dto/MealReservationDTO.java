@@ -0,0 +1,15 @@
+package com.sust.hall.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/** A student's claim on a meal, with the portions still left once it was taken. */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MealReservationDTO {
+    private Long mealId;
+    private Long userId;
+    private long remaining;
+}
@@ -0,0 +1,25 @@
+package com.sust.hall.dto;
+
+import com.sust.hall.enums.MealRollupPeriod;
+import com.sust.hall.enums.MealType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDate;
+
+/** One day or month of meals for a hall and meal type; {@code bucket} is the first day of the period. */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MealRollupDTO {
+    private Long hallId;
+    private String hallName;
+    private MealType mealType;
+    private MealRollupPeriod period;
+    private LocalDate bucket;
+    private int mealCount;
+    private double minPrice;
+    private double avgPrice;
+    private double maxPrice;
+    private long totalQuantity;
+}
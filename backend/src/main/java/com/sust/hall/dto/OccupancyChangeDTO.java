@@ -0,0 +1,14 @@
+package com.sust.hall.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+/** One entry of a batched occupancy change: positive delta checks in, negative checks out. */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OccupancyChangeDTO {
+    private Long hallId;
+    private int delta;
+}
@@ -0,0 +1,23 @@
+package com.sust.hall.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+/**
+ * A point of occupancy history; for raw samples min, max, avg and last are all the same value.
+ * For rollups avg is the plain mean of the occupancies recorded at each change in the bucket,
+ * not a time-weighted average: a level held for an hour counts as much as one held for a second.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OccupancyPointDTO {
+    private LocalDateTime time;
+    private int min;
+    private int max;
+    private double avg;
+    private int last;
+    private int samples;
+}
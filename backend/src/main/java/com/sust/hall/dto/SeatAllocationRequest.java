@@ -0,0 +1,20 @@
+package com.sust.hall.dto;
+
+import com.sust.hall.enums.HallType;
+import lombok.Data;
+import java.util.List;
+
+/**
+ * Intake allocation: places approved students without a hall into halls of
+ * {@code hallType}. Halls named in {@code hallPreference} are filled first, in
+ * that order, then the remaining halls by name. {@code userIds} is required and
+ * names the cohort, since users carry no gender to match against the hall type;
+ * its unassigned approved students are placed oldest registration first.
+ */
+@Data
+public class SeatAllocationRequest {
+    private HallType hallType;
+    private List<String> hallPreference;
+    private List<Long> userIds;
+    private boolean dryRun;
+}
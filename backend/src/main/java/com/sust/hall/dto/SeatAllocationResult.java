@@ -0,0 +1,29 @@
+package com.sust.hall.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SeatAllocationResult {
+    private boolean dryRun;
+    private int candidates;
+    private int assigned;
+    private int unplaced;
+    private List<HallAllocation> halls;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class HallAllocation {
+        private Long hallId;
+        private String hallName;
+        private int capacity;
+        private int occupancyBefore;
+        private int assigned;
+        private int occupancyAfter;
+    }
+}
@@ -0,0 +1,25 @@
+package com.sust.hall.dto;
+
+import com.sust.hall.enums.AccountStatus;
+import com.sust.hall.enums.UserRole;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+/**
+ * Listing view of a user. Carries no password hash, so it is safe to return
+ * from the admin and user listing endpoints.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserSummaryDTO {
+    private Long id;
+    private String name;
+    private String email;
+    private String hallName;
+    private UserRole role;
+    private AccountStatus accountStatus;
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,16 @@
+package com.sust.hall.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/** Where a student stands: {@code position} is 1 at the head of the waitlist and 0 once promoted to a seat. */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class WaitlistPositionDTO {
+    private Long userId;
+    private Long hallId;
+    private long position;
+    private int waiting;
+}
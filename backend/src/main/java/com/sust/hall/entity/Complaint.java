@@ -11,7 +11,12 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "complaints")
+@Table(name = "complaints", indexes = {
+        @Index(name = "idx_complaints_queue", columnList = "priority_rank, created_at, id"),
+        @Index(name = "idx_complaints_status_queue", columnList = "status, priority_rank, created_at, id"),
+        @Index(name = "idx_complaints_category_queue", columnList = "category, priority_rank, created_at, id"),
+        @Index(name = "idx_complaints_category_status_queue", columnList = "category, status, priority_rank, created_at, id")
+})
 public class Complaint {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -36,6 +41,10 @@ public class Complaint {
     @Column(nullable = false)
     private Priority priority;
 
+    // Queue order of priority, URGENT first; null only on rows written before the column existed
+    @Column(name = "priority_rank")
+    private Integer priorityRank;
+
     @NotNull(message = "Status is required")
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
@@ -67,7 +76,11 @@ public class Complaint {
 
     // Enums
     public enum Priority {
-        LOW, MEDIUM, HIGH, URGENT
+        LOW, MEDIUM, HIGH, URGENT;
+
+        public int rank() {
+            return values().length - 1 - ordinal();
+        }
     }
 
     public enum Status {
@@ -84,7 +97,7 @@ public class Complaint {
         this.title = title;
         this.description = description;
         this.category = category;
-        this.priority = priority;
+        setPriority(priority);
         this.user = user;
     }
 
@@ -109,9 +122,15 @@ public class Complaint {
         }
     }
 
+    @PrePersist
+    public void prePersist() {
+        this.priorityRank = priority != null ? priority.rank() : null;
+    }
+
     // Pre-update callback
     @PreUpdate
     public void preUpdate() {
+        this.priorityRank = priority != null ? priority.rank() : null;
         this.updatedAt = LocalDateTime.now();
         if ((this.status == Status.RESOLVED || this.status == Status.CLOSED) && this.resolvedAt == null) {
             this.resolvedAt = LocalDateTime.now();
@@ -132,7 +151,12 @@ public class Complaint {
     public void setCategory(String category) { this.category = category; }
 
     public Priority getPriority() { return priority; }
-    public void setPriority(Priority priority) { this.priority = priority; }
+    public void setPriority(Priority priority) {
+        this.priority = priority;
+        this.priorityRank = priority != null ? priority.rank() : null;
+    }
+
+    public Integer getPriorityRank() { return priorityRank; }
 
     public Status getStatus() { return status; }
     public void setStatus(Status status) { this.status = status; }
@@ -0,0 +1,49 @@
+package com.sust.hall.entity;
+
+import com.sust.hall.enums.OccupancyResolution;
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+/**
+ * Hourly or daily occupancy bucket. Rows are upserted on the unique
+ * (hall_id, resolution, bucket_start) key, so they are kept after raw samples expire.
+ */
+@Entity
+@Table(name = "hall_occupancy_rollups", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_occupancy_rollups_bucket", columnNames = {"hall_id", "resolution", "bucket_start"})
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class HallOccupancyRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "hall_id", nullable = false)
+    private Long hallId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 8)
+    private OccupancyResolution resolution;
+
+    @Column(name = "bucket_start", nullable = false)
+    private LocalDateTime bucketStart;
+
+    @Column(name = "min_occupancy", nullable = false)
+    private Integer minOccupancy;
+
+    @Column(name = "max_occupancy", nullable = false)
+    private Integer maxOccupancy;
+
+    @Column(name = "sum_occupancy", nullable = false)
+    private Long sumOccupancy;
+
+    @Column(name = "sample_count", nullable = false)
+    private Integer sampleCount;
+
+    @Column(name = "last_occupancy", nullable = false)
+    private Integer lastOccupancy;
+}
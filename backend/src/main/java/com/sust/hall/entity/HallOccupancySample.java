@@ -0,0 +1,33 @@
+package com.sust.hall.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+/** One raw occupancy reading. Written in batches by OccupancyHistoryRecorder and expired after a retention window. */
+@Entity
+@Table(name = "hall_occupancy_samples", indexes = {
+        @Index(name = "idx_occupancy_samples_hall_time", columnList = "hall_id, sampled_at"),
+        @Index(name = "idx_occupancy_samples_time", columnList = "sampled_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class HallOccupancySample {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "hall_id", nullable = false)
+    private Long hallId;
+
+    @Column(name = "sampled_at", nullable = false)
+    private LocalDateTime sampledAt;
+
+    @Column(nullable = false)
+    private Integer occupancy;
+
+    @Column(nullable = false)
+    private Integer capacity;
+}
@@ -0,0 +1,47 @@
+package com.sust.hall.entity;
+
+import com.sust.hall.enums.WaitlistStatus;
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+/**
+ * A student waiting for a seat in a full hall. The auto-increment id is the FIFO
+ * order. {@code activeUserId} mirrors {@code userId} only while the entry is
+ * WAITING, so its unique key allows one open entry per student.
+ */
+@Entity
+@Table(name = "hall_waitlist", indexes = {
+        @Index(name = "idx_hall_waitlist_hall_status_id", columnList = "hall_id, status, id"),
+        @Index(name = "idx_hall_waitlist_user", columnList = "user_id")
+}, uniqueConstraints = {
+        @UniqueConstraint(name = "uk_hall_waitlist_active_user", columnNames = "active_user_id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class HallWaitlistEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "hall_id", nullable = false)
+    private Long hallId;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "active_user_id")
+    private Long activeUserId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private WaitlistStatus status;
+
+    @Column(name = "enqueued_at", nullable = false)
+    private LocalDateTime enqueuedAt;
+
+    @Column(name = "closed_at")
+    private LocalDateTime closedAt;
+}
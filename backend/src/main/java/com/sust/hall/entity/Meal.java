@@ -4,6 +4,7 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
 import java.time.LocalDateTime;
 import com.sust.hall.enums.MealType;
 
@@ -11,14 +12,23 @@ import com.sust.hall.enums.MealType;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "meals")
+@Table(name = "meals", indexes = {
+        @Index(name = "idx_meals_hall_date", columnList = "hall_id, meal_date"),
+        @Index(name = "idx_meals_hall_type_date", columnList = "hall_id, meal_type, meal_date"),
+        @Index(name = "idx_meals_hall_available_date", columnList = "hall_id, is_available, sold_out, meal_date"),
+        @Index(name = "idx_meals_type_date", columnList = "meal_type, meal_date"),
+        @Index(name = "idx_meals_available_date", columnList = "is_available, sold_out, meal_date"),
+        @Index(name = "idx_meals_date", columnList = "meal_date"),
+        @Index(name = "idx_meals_hall_name_rating", columnList = "hall_id, meal_name, rating_count, rating_sum")
+})
 public class Meal {
 
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @ManyToOne(fetch = FetchType.EAGER)
+    // Reads go through MealDTO projections, so nothing needs the hall loaded up front
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "hall_id", nullable = false)
     private Hall hall;
 
@@ -44,6 +54,20 @@ public class Meal {
     @Column(name = "is_available", nullable = false)
     private Boolean isAvailable = true;
 
+    // Set by MealReservationService when the last portion goes, apart from the admin's is_available
+    @ColumnDefault("0")
+    @Column(name = "sold_out", nullable = false, insertable = false, updatable = false)
+    private Boolean soldOut;
+
+    // Running rating aggregates, only ever written by MealRatingService; JPA leaves them alone
+    @ColumnDefault("0")
+    @Column(name = "rating_sum", nullable = false, insertable = false, updatable = false)
+    private Long ratingSum;
+
+    @ColumnDefault("0")
+    @Column(name = "rating_count", nullable = false, insertable = false, updatable = false)
+    private Integer ratingCount;
+
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
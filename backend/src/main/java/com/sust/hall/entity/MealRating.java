@@ -0,0 +1,35 @@
+package com.sust.hall.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+/**
+ * A student's score for one meal. The unique (meal_id, user_id) key is what
+ * rejects a second vote; meals.rating_sum and rating_count aggregate these rows.
+ */
+@Entity
+@Table(name = "meal_ratings", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_meal_ratings_meal_user", columnNames = {"meal_id", "user_id"})
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MealRating {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "meal_id", nullable = false)
+    private Long mealId;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(nullable = false)
+    private Integer score;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
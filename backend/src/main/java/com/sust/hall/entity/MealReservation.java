@@ -0,0 +1,47 @@
+package com.sust.hall.entity;
+
+import com.sust.hall.enums.ReservationStatus;
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+/**
+ * One portion of a meal claimed by a student. {@code activeUserId} mirrors
+ * {@code userId} only while the reservation is RESERVED, so its unique key allows
+ * one open reservation per student and meal while keeping cancelled history.
+ */
+@Entity
+@Table(name = "meal_reservations", indexes = {
+        @Index(name = "idx_meal_reservations_meal_status", columnList = "meal_id, status"),
+        @Index(name = "idx_meal_reservations_user", columnList = "user_id")
+}, uniqueConstraints = {
+        @UniqueConstraint(name = "uk_meal_reservations_meal_active_user", columnNames = { "meal_id", "active_user_id" })
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MealReservation {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "meal_id", nullable = false)
+    private Long mealId;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "active_user_id")
+    private Long activeUserId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private ReservationStatus status;
+
+    @Column(name = "reserved_at", nullable = false)
+    private LocalDateTime reservedAt;
+
+    @Column(name = "cancelled_at")
+    private LocalDateTime cancelledAt;
+}
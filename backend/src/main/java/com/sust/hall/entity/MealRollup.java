@@ -0,0 +1,61 @@
+package com.sust.hall.entity;
+
+import com.sust.hall.enums.MealRollupPeriod;
+import com.sust.hall.enums.MealType;
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Daily or monthly meal aggregates per hall and meal type. Day buckets are
+ * rebuilt from the meals table, month buckets from the day buckets, so both
+ * survive pruning of old meals.
+ */
+@Entity
+@Table(name = "meal_rollups", indexes = {
+        @Index(name = "idx_meal_rollups_period_bucket", columnList = "period, bucket_date")
+}, uniqueConstraints = {
+        @UniqueConstraint(name = "uk_meal_rollups_bucket", columnNames = {"hall_id", "meal_type", "period", "bucket_date"})
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MealRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "hall_id", nullable = false)
+    private Long hallId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "meal_type", nullable = false)
+    private MealType mealType;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 8)
+    private MealRollupPeriod period;
+
+    @Column(name = "bucket_date", nullable = false)
+    private LocalDate bucketDate;
+
+    @Column(name = "meal_count", nullable = false)
+    private Integer mealCount;
+
+    @Column(name = "min_price", nullable = false)
+    private Double minPrice;
+
+    @Column(name = "max_price", nullable = false)
+    private Double maxPrice;
+
+    @Column(name = "sum_price", nullable = false)
+    private Double sumPrice;
+
+    @Column(name = "total_quantity", nullable = false)
+    private Long totalQuantity;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,33 @@
+package com.sust.hall.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDate;
+
+/**
+ * A (hall, day) whose meal rollups are out of date. Meal writes insert or bump
+ * the row in their own transaction; the rollup flush rebuilds the day and
+ * deletes the row only if its version is still the one it read.
+ */
+@Entity
+@Table(name = "meal_rollup_dirty", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_meal_rollup_dirty_day", columnNames = {"hall_id", "bucket_date"})
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MealRollupDirty {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "hall_id", nullable = false)
+    private Long hallId;
+
+    @Column(name = "bucket_date", nullable = false)
+    private LocalDate bucketDate;
+
+    @Column(nullable = false)
+    private Long version;
+}
@@ -7,7 +7,14 @@ import java.time.LocalDateTime;
 import java.util.Objects;
 
 @Entity
-@Table(name = "users")
+@Table(name = "users", indexes = {
+        @Index(name = "idx_users_created_id", columnList = "created_at, id"),
+        @Index(name = "idx_users_name_id", columnList = "name, id"),
+        @Index(name = "idx_users_status_created_id", columnList = "account_status, created_at, id"),
+        @Index(name = "idx_users_hall_name_id", columnList = "hall_name, name, id"),
+        @Index(name = "idx_users_role_name_id", columnList = "role, name, id"),
+        @Index(name = "idx_users_token_version_changed", columnList = "token_version_changed_at")
+})
 public class User {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -36,6 +43,14 @@ public class User {
     @Column(name = "created_at", nullable = false)
     private LocalDateTime createdAt;
 
+    // Bumped whenever previously issued tokens must stop working
+    @Column(name = "token_version", nullable = false, columnDefinition = "INT NOT NULL DEFAULT 0")
+    private int tokenVersion;
+
+    // Set with every token_version bump, so other instances can poll for recent bumps through an index
+    @Column(name = "token_version_changed_at", columnDefinition = "DATETIME(3)")
+    private LocalDateTime tokenVersionChangedAt;
+
    
     public User() {
         this.createdAt = LocalDateTime.now();
@@ -112,6 +127,14 @@ public class User {
         this.createdAt = createdAt;
     }
 
+    public int getTokenVersion() {
+        return tokenVersion;
+    }
+
+    public void setTokenVersion(int tokenVersion) {
+        this.tokenVersion = tokenVersion;
+    }
+
     
     @Override
     public boolean equals(Object o) {
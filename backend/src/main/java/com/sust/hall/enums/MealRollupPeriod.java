@@ -0,0 +1,6 @@
+package com.sust.hall.enums;
+
+public enum MealRollupPeriod {
+    DAY,
+    MONTH
+}
@@ -0,0 +1,7 @@
+package com.sust.hall.enums;
+
+public enum WaitlistStatus {
+    WAITING,
+    PROMOTED,
+    CANCELLED
+}
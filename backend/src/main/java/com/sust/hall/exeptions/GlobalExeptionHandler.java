@@ -1,5 +1,6 @@
 package com.sust.hall.exeptions;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
@@ -30,6 +31,26 @@ public class GlobalExeptionHandler {
         return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
     }
     
+    @ExceptionHandler(ServiceUnavailableException.class)
+    public ResponseEntity<Response<?>> handleServiceUnavailableExeption(Exception e){
+        Response<?> response = Response.builder()
+                                    .statusCode(HttpStatus.SERVICE_UNAVAILABLE.value())
+                                    .message(e.getMessage())
+                                    .build();
+        return new ResponseEntity<>(response, HttpStatus.SERVICE_UNAVAILABLE);
+    }
+    
+    @ExceptionHandler(TooManyRequestsException.class)
+    public ResponseEntity<Response<?>> handleTooManyRequestsExeption(TooManyRequestsException e){
+        Response<?> response = Response.builder()
+                                    .statusCode(HttpStatus.TOO_MANY_REQUESTS.value())
+                                    .message(e.getMessage())
+                                    .build();
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(response);
+    }
+    
     @ExceptionHandler(Exception.class)
     public ResponseEntity<Response<?>> handleAllUnknownExeption(Exception e){
         Response<?> response = Response.builder()
@@ -0,0 +1,7 @@
+package com.sust.hall.exeptions;
+
+public class ServiceUnavailableException extends RuntimeException{
+    public ServiceUnavailableException (String ex){
+        super(ex);
+    }
+}
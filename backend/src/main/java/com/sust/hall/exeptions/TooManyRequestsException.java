@@ -0,0 +1,14 @@
+package com.sust.hall.exeptions;
+
+public class TooManyRequestsException extends RuntimeException{
+    private final long retryAfterSeconds;
+
+    public TooManyRequestsException (String ex, long retryAfterSeconds){
+        super(ex);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,19 @@
+package com.sust.hall.repository;
+
+import com.sust.hall.dto.CursorPage;
+import com.sust.hall.entity.Complaint;
+import com.sust.hall.entity.Complaint.Priority;
+import com.sust.hall.entity.Complaint.Status;
+
+import java.time.LocalDateTime;
+
+/** Custom fragment of {@link ComplaintRepository} for the staff work queue. */
+public interface ComplaintQueueRepository {
+
+    /**
+     * Every filter is optional; {@code from} is inclusive and {@code to} exclusive.
+     * Pages are ordered URGENT first, then oldest first, with the user fetched.
+     */
+    CursorPage<Complaint> findQueue(Status status, String category, Priority priority, String hallName,
+            LocalDateTime from, LocalDateTime to, String cursor, int limit);
+}
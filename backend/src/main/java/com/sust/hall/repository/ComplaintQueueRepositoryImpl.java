@@ -0,0 +1,82 @@
+package com.sust.hall.repository;
+
+import com.sust.hall.dto.CursorPage;
+import com.sust.hall.entity.Complaint;
+import com.sust.hall.entity.Complaint.Priority;
+import com.sust.hall.entity.Complaint.Status;
+import com.sust.hall.exeptions.BadRequestException;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+class ComplaintQueueRepositoryImpl implements ComplaintQueueRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public CursorPage<Complaint> findQueue(Status status, String category, Priority priority, String hallName,
+            LocalDateTime from, LocalDateTime to, String cursor, int limit) {
+        // The (priority_rank, created_at, id) indexes serve the order; rows without a rank are not yet backfilled
+        StringBuilder jpql = new StringBuilder("SELECT c FROM Complaint c JOIN FETCH c.user u WHERE c.priorityRank IS NOT NULL");
+        Map<String, Object> params = new LinkedHashMap<>();
+        if (status != null) {
+            jpql.append(" AND c.status = :status");
+            params.put("status", status);
+        }
+        if (category != null && !category.isBlank()) {
+            jpql.append(" AND c.category = :category");
+            params.put("category", category);
+        }
+        if (priority != null) {
+            jpql.append(" AND c.priorityRank = :rank");
+            params.put("rank", priority.rank());
+        }
+        if (hallName != null && !hallName.isBlank()) {
+            jpql.append(" AND u.hallName = :hallName");
+            params.put("hallName", hallName);
+        }
+        if (from != null) {
+            jpql.append(" AND c.createdAt >= :from");
+            params.put("from", from);
+        }
+        if (to != null) {
+            jpql.append(" AND c.createdAt < :to");
+            params.put("to", to);
+        }
+        if (cursor != null && !cursor.isBlank()) {
+            String[] parts = KeysetCursor.decode(cursor, 3);
+            jpql.append(" AND (c.priorityRank > :lastRank OR (c.priorityRank = :lastRank AND (c.createdAt > :lastCreatedAt")
+                .append(" OR (c.createdAt = :lastCreatedAt AND c.id > :lastId))))");
+            try {
+                params.put("lastRank", Integer.valueOf(parts[0]));
+                params.put("lastCreatedAt", LocalDateTime.parse(parts[1]));
+                params.put("lastId", Long.valueOf(parts[2]));
+            } catch (NumberFormatException | DateTimeParseException e) {
+                throw new BadRequestException("Invalid cursor");
+            }
+        }
+        jpql.append(" ORDER BY c.priorityRank ASC, c.createdAt ASC, c.id ASC");
+
+        TypedQuery<Complaint> query = entityManager.createQuery(jpql.toString(), Complaint.class);
+        params.forEach(query::setParameter);
+        query.setMaxResults(limit + 1);
+        List<Complaint> rows = query.getResultList();
+
+        boolean hasMore = rows.size() > limit;
+        if (!hasMore) {
+            return new CursorPage<>(rows, null, false);
+        }
+        List<Complaint> page = new ArrayList<>(rows.subList(0, limit));
+        Complaint last = page.get(limit - 1);
+        return new CursorPage<>(page, KeysetCursor.encode(last.getPriorityRank(), last.getCreatedAt(), last.getId()), true);
+    }
+}
@@ -2,18 +2,35 @@ package com.sust.hall.repository;
 
 import com.sust.hall.entity.Complaint;
 import com.sust.hall.entity.Complaint.Status;
+import com.sust.hall.entity.ComplaintNote;
 import com.sust.hall.entity.User;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
+import com.sust.hall.dto.ComplaintExportRow;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
-public interface ComplaintRepository extends JpaRepository<Complaint, Long> {
+public interface ComplaintRepository extends JpaRepository<Complaint, Long>, ComplaintQueueRepository {
 
     List<Complaint> findByUser(User user);
 
+    // Listings load the submitting user in the same query; notes come from findNotesByComplaintIds
+    @Override
+    @EntityGraph(attributePaths = "user")
+    List<Complaint> findAll();
+
+    @EntityGraph(attributePaths = "user")
     List<Complaint> findByStatus(Status status);
 
+    @EntityGraph(attributePaths = "user")
     List<Complaint> findByCategory(String category);
 
     List<Complaint> findByCategoryAndStatus(String category, Status status);
@@ -21,5 +38,30 @@ public interface ComplaintRepository extends JpaRepository<Complaint, Long> {
     @Query("SELECT c FROM Complaint c WHERE c.priority = :priority ORDER BY c.createdAt DESC")
     List<Complaint> findByPriorityOrderByCreatedAtDesc(@Param("priority") Complaint.Priority priority);
 
+    @EntityGraph(attributePaths = "user")
     List<Complaint> findByUserId(Long userId);
+
+    // Ranks rows written before priority_rank existed; new rows get it from the entity
+    @Modifying
+    @Query(value = "UPDATE complaints SET priority_rank = CASE priority WHEN 'URGENT' THEN 0 WHEN 'HIGH' THEN 1 " +
+                   "WHEN 'MEDIUM' THEN 2 ELSE 3 END WHERE priority_rank IS NULL", nativeQuery = true)
+    int backfillPriorityRanks();
+
+    @Query("SELECT n FROM ComplaintNote n WHERE n.complaint.id IN :complaintIds ORDER BY n.id")
+    List<ComplaintNote> findNotesByComplaintIds(@Param("complaintIds") Collection<Long> complaintIds);
+
+    // Integer.MIN_VALUE fetch size makes MySQL stream rows instead of buffering the result
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "-2147483648"))
+    @Query("SELECT new com.sust.hall.dto.ComplaintExportRow(c.id, c.title, c.description, c.category, c.priority, " +
+           "c.status, u.id, u.name, u.hallName, c.adminResponse, c.createdAt, c.updatedAt, c.resolvedAt) " +
+           "FROM Complaint c JOIN c.user u " +
+           "WHERE (:status IS NULL OR c.status = :status) " +
+           "AND (:category IS NULL OR c.category = :category) " +
+           "AND (:from IS NULL OR c.createdAt >= :from) " +
+           "AND (:to IS NULL OR c.createdAt < :to) " +
+           "ORDER BY c.id")
+    Stream<ComplaintExportRow> streamForExport(@Param("status") Status status,
+                                               @Param("category") String category,
+                                               @Param("from") LocalDateTime from,
+                                               @Param("to") LocalDateTime to);
 }
\ No newline at end of file
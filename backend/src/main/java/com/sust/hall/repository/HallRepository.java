@@ -3,7 +3,10 @@ package com.sust.hall.repository;
 import com.sust.hall.entity.Hall;
 import com.sust.hall.enums.HallType;
 
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.ConnectionCallback;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
 import org.springframework.jdbc.support.KeyHolder;
@@ -15,17 +18,33 @@ import java.sql.SQLException;
 import java.sql.Statement;
 import java.sql.Timestamp;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.TreeMap;
 
 @Repository
 public class HallRepository {
 
 
     private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public HallRepository(JdbcTemplate jdbcTemplate) {
+    public HallRepository(JdbcTemplate jdbcTemplate, ApplicationEventPublisher eventPublisher) {
         this.jdbcTemplate = jdbcTemplate;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Published after every write to the halls table so in-memory views such as
+     * HallRegistry can swap in the new row once the write has committed.
+     */
+    public record HallChangedEvent(Long hallId) {
     }
     
     public Hall save(Hall hall) {
@@ -62,6 +81,7 @@ public class HallRepository {
         }, keyHolder);
         
         hall.setId(keyHolder.getKey().longValue());
+        eventPublisher.publishEvent(new HallChangedEvent(hall.getId()));
         return hall;
     } else {
         String sql = """
@@ -89,6 +109,7 @@ public class HallRepository {
             hall.getIsActive(),
             LocalDateTime.now(),
             hall.getId());
+        eventPublisher.publishEvent(new HallChangedEvent(hall.getId()));
         return hall;
     }
 }
@@ -113,6 +134,12 @@ public class HallRepository {
         }
     }
 
+    public Optional<Hall> findByIdIncludingInactive(Long id) {
+        String sql = "SELECT * FROM halls WHERE id = ?";
+        List<Hall> halls = jdbcTemplate.query(sql, new HallRowMapper(), id);
+        return halls.stream().findFirst();
+    }
+
     public Optional<Hall> findByHallCode(String hallCode) {
         String sql = "SELECT * FROM halls WHERE hall_code = ? AND is_active = true";
         try {
@@ -148,6 +175,12 @@ public class HallRepository {
         return jdbcTemplate.query(sql, new HallRowMapper(), type.name());
     }
 
+    /** Active halls of a type, locked until the surrounding transaction ends. */
+    public List<Hall> findByTypeForUpdate(HallType type) {
+        String sql = "SELECT * FROM halls WHERE type = ? AND is_active = true ORDER BY id FOR UPDATE";
+        return jdbcTemplate.query(sql, new HallRowMapper(), type.name());
+    }
+
     public List<Hall> findMaleHalls() {
         return findByType(HallType.MALE);
     }
@@ -210,12 +243,117 @@ public class HallRepository {
 
     public int updateOccupancy(Long hallId, int newOccupancy) {
         String sql = "UPDATE halls SET current_occupancy = ?, updated_at = ? WHERE id = ?";
-        return jdbcTemplate.update(sql, newOccupancy, LocalDateTime.now(), hallId);
+        int updated = jdbcTemplate.update(sql, newOccupancy, LocalDateTime.now(), hallId);
+        if (updated > 0) {
+            eventPublisher.publishEvent(new HallChangedEvent(hallId));
+        }
+        return updated;
+    }
+
+    /**
+     * Sets the occupancy only if it lies within 0..capacity, checked in the same
+     * UPDATE so concurrent writers cannot push a hall over capacity.
+     */
+    public int updateOccupancyWithinCapacity(Long hallId, int newOccupancy) {
+        String sql = """
+            UPDATE halls SET current_occupancy = ?, updated_at = ?
+            WHERE id = ? AND is_active = true AND ? BETWEEN 0 AND capacity
+            """;
+        int updated = jdbcTemplate.update(sql, newOccupancy, LocalDateTime.now(), hallId, newOccupancy);
+        if (updated > 0) {
+            eventPublisher.publishEvent(new HallChangedEvent(hallId));
+        }
+        return updated;
+    }
+
+    /**
+     * Adds {@code delta} to the occupancy in one guarded UPDATE and returns the new
+     * value, or empty when the hall is missing or the result would leave 0..capacity.
+     * MySQL has no UPDATE ... RETURNING, so the new value is captured with
+     * LAST_INSERT_ID(expr) and read back on the same connection.
+     */
+    public OptionalInt adjustOccupancy(Long hallId, int delta) {
+        String sql = """
+            UPDATE halls SET current_occupancy = LAST_INSERT_ID(current_occupancy + ?), updated_at = ?
+            WHERE id = ? AND is_active = true AND current_occupancy + ? BETWEEN 0 AND capacity
+            """;
+        Integer occupancy = jdbcTemplate.execute((ConnectionCallback<Integer>) connection -> {
+            try (PreparedStatement ps = connection.prepareStatement(sql)) {
+                ps.setInt(1, delta);
+                ps.setTimestamp(2, Timestamp.valueOf(LocalDateTime.now()));
+                ps.setLong(3, hallId);
+                ps.setInt(4, delta);
+                if (ps.executeUpdate() == 0) {
+                    return null;
+                }
+            }
+            try (Statement st = connection.createStatement();
+                 ResultSet rs = st.executeQuery("SELECT LAST_INSERT_ID()")) {
+                rs.next();
+                return rs.getInt(1);
+            }
+        });
+        if (occupancy == null) {
+            return OptionalInt.empty();
+        }
+        eventPublisher.publishEvent(new HallChangedEvent(hallId));
+        return OptionalInt.of(occupancy);
+    }
+
+    /**
+     * Applies several occupancy deltas as one JDBC batch of guarded UPDATEs.
+     * Deltas for the same hall should be merged by the caller; halls are updated in
+     * id order so concurrent batches cannot deadlock.
+     *
+     * Must run inside a transaction: the returned list holds the ids whose guard
+     * failed, and the caller is expected to roll back when it is not empty.
+     */
+    public List<Long> adjustOccupancies(Map<Long, Integer> deltas) {
+        TreeMap<Long, Integer> ordered = new TreeMap<>(deltas);
+        ordered.values().removeIf(delta -> delta == 0);
+        if (ordered.isEmpty()) {
+            return Collections.emptyList();
+        }
+        String sql = """
+            UPDATE halls SET current_occupancy = current_occupancy + ?, updated_at = ?
+            WHERE id = ? AND is_active = true AND current_occupancy + ? BETWEEN 0 AND capacity
+            """;
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> args = new ArrayList<>(ordered.size());
+        ordered.forEach((hallId, delta) -> args.add(new Object[] { delta, now, hallId, delta }));
+        int[] counts = jdbcTemplate.batchUpdate(sql, args);
+
+        List<Long> rejected = new ArrayList<>();
+        int i = 0;
+        for (Long hallId : ordered.keySet()) {
+            if (counts[i++] == 0) {
+                rejected.add(hallId);
+            } else {
+                eventPublisher.publishEvent(new HallChangedEvent(hallId));
+            }
+        }
+        return rejected;
+    }
+
+    public Map<Long, Integer> findOccupancies(Collection<Long> hallIds) {
+        if (hallIds.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        String sql = "SELECT id, current_occupancy FROM halls WHERE id IN ("
+            + String.join(", ", Collections.nCopies(hallIds.size(), "?")) + ") ORDER BY id";
+        Map<Long, Integer> occupancies = new LinkedHashMap<>();
+        jdbcTemplate.query(sql, (RowCallbackHandler) rs ->
+            occupancies.put(rs.getLong("id"), rs.getInt("current_occupancy")), hallIds.toArray());
+        return occupancies;
     }
 
     public int deactivateHall(Long hallId) {
         String sql = "UPDATE halls SET is_active = false, updated_at = ? WHERE id = ?";
-        return jdbcTemplate.update(sql, LocalDateTime.now(), hallId);
+        int updated = jdbcTemplate.update(sql, LocalDateTime.now(), hallId);
+        if (updated > 0) {
+            eventPublisher.publishEvent(new HallChangedEvent(hallId));
+        }
+        return updated;
     }
 
     public int getTotalCapacity() {
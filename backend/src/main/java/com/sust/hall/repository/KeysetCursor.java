@@ -0,0 +1,50 @@
+package com.sust.hall.repository;
+
+import com.sust.hall.exeptions.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Encodes the sort key of the last row of a page into an opaque, URL-safe
+ * cursor and back. Clients must treat the cursor as a black box.
+ */
+public final class KeysetCursor {
+
+    private static final String SEPARATOR = "\u001F";
+
+    private KeysetCursor() {
+    }
+
+    public static String encode(Object... parts) {
+        StringBuilder joined = new StringBuilder();
+        for (int i = 0; i < parts.length; i++) {
+            if (i > 0) {
+                joined.append(SEPARATOR);
+            }
+            joined.append(parts[i]);
+        }
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(joined.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static String[] decode(String cursor, int expectedParts) {
+        try {
+            String joined = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = joined.split(SEPARATOR, -1);
+            if (parts.length != expectedParts) {
+                throw new BadRequestException("Invalid cursor");
+            }
+            return parts;
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
+    }
+
+    public static int clampLimit(Integer limit, int defaultLimit, int maxLimit) {
+        if (limit == null || limit <= 0) {
+            return defaultLimit;
+        }
+        return Math.min(limit, maxLimit);
+    }
+}
@@ -0,0 +1,111 @@
+package com.sust.hall.repository;
+
+import com.sust.hall.entity.Meal;
+
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Plain JDBC access to the meals table for bulk paths where going through JPA
+ * would mean one IDENTITY insert round trip per row.
+ */
+@Repository
+public class MealJdbcRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public MealJdbcRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Inserts all meals as one JDBC batch and sets their generated ids. With
+     * rewriteBatchedStatements=true on the MySQL URL the batch is sent as a single
+     * multi-row INSERT.
+     */
+    public void batchInsert(List<Meal> meals) {
+        if (meals.isEmpty()) {
+            return;
+        }
+        String sql = """
+            INSERT INTO meals (hall_id, meal_type, meal_name, description, price, quantity,
+            meal_date, is_available, created_at, updated_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+            """;
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(connection -> connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS),
+            new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement ps, int i) throws SQLException {
+                    Meal meal = meals.get(i);
+                    ps.setLong(1, meal.getHall().getId());
+                    ps.setString(2, meal.getMealType().name());
+                    ps.setString(3, meal.getMealName());
+                    ps.setString(4, meal.getDescription());
+                    ps.setDouble(5, meal.getPrice());
+                    ps.setInt(6, meal.getQuantity());
+                    ps.setTimestamp(7, Timestamp.valueOf(meal.getMealDate()));
+                    ps.setBoolean(8, meal.getIsAvailable());
+                    ps.setTimestamp(9, Timestamp.valueOf(meal.getCreatedAt()));
+                    ps.setTimestamp(10, Timestamp.valueOf(meal.getUpdatedAt()));
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return meals.size();
+                }
+            }, keyHolder);
+
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        for (int i = 0; i < meals.size() && i < keys.size(); i++) {
+            Object key = keys.get(i).values().iterator().next();
+            meals.get(i).setId(((Number) key).longValue());
+        }
+    }
+
+    /**
+     * Copies meals dated in [from, to) as one INSERT ... SELECT. Copy n (from 0)
+     * is shifted by offsetSeconds + n * periodSeconds. Meals that already exist at
+     * the target (same hall, type, name and date) are skipped, so re-running a
+     * clone does not duplicate the menu. Returns the number of meals created.
+     */
+    public int cloneMeals(Long hallId, LocalDateTime from, LocalDateTime to, long offsetSeconds,
+            long periodSeconds, int copies, Double price, Integer quantity) {
+        String sql = """
+            INSERT INTO meals (hall_id, meal_type, meal_name, description, price, quantity,
+            meal_date, is_available, created_at, updated_at)
+            WITH RECURSIVE copies (n) AS (SELECT 0 UNION ALL SELECT n + 1 FROM copies WHERE n + 1 < ?)
+            SELECT m.hall_id, m.meal_type, m.meal_name, m.description, COALESCE(?, m.price),
+                COALESCE(?, m.quantity), m.meal_date + INTERVAL (? + c.n * ?) SECOND, true, ?, ?
+            FROM meals m CROSS JOIN copies c
+            WHERE m.meal_date >= ? AND m.meal_date < ?
+            """ + (hallId != null ? "AND m.hall_id = ? " : "") + """
+              AND NOT EXISTS (SELECT 1 FROM meals t
+                  WHERE t.hall_id = m.hall_id AND t.meal_type = m.meal_type
+                    AND t.meal_date = m.meal_date + INTERVAL (? + c.n * ?) SECOND
+                    AND t.meal_name = m.meal_name)
+            """;
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object> params = new ArrayList<>(List.of(copies));
+        params.add(price);
+        params.add(quantity);
+        params.addAll(List.of(offsetSeconds, periodSeconds, now, now, Timestamp.valueOf(from), Timestamp.valueOf(to)));
+        if (hallId != null) {
+            params.add(hallId);
+        }
+        params.addAll(List.of(offsetSeconds, periodSeconds));
+        return jdbcTemplate.update(sql, params.toArray());
+    }
+}
@@ -0,0 +1,109 @@
+package com.sust.hall.repository;
+
+import com.sust.hall.dto.DishRatingDTO;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+@Repository
+public class MealRatingRepository {
+
+    private static final int IN_LIST_CHUNK = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public MealRatingRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Inserts the rating only if the meal exists; returns false when it does not.
+     * Throws DuplicateKeyException when the user has already rated the meal.
+     */
+    public boolean insert(Long mealId, Long userId, int score) {
+        String sql = "INSERT INTO meal_ratings (meal_id, user_id, score, created_at) SELECT id, ?, ?, ? FROM meals WHERE id = ?";
+        return jdbcTemplate.update(sql, userId, score, Timestamp.valueOf(LocalDateTime.now()), mealId) > 0;
+    }
+
+    /**
+     * Rewrites the aggregates of the given meals from meal_ratings. The result
+     * depends only on the committed ratings, so running it twice, or on two
+     * instances at once, cannot count a vote twice.
+     */
+    public void recomputeAggregates(List<Long> mealIds) {
+        for (int i = 0; i < mealIds.size(); i += IN_LIST_CHUNK) {
+            List<Long> chunk = mealIds.subList(i, Math.min(mealIds.size(), i + IN_LIST_CHUNK));
+            String placeholders = String.join(",", Collections.nCopies(chunk.size(), "?"));
+            String sql = """
+                UPDATE meals m
+                LEFT JOIN (SELECT meal_id, SUM(score) AS score_sum, COUNT(*) AS score_count
+                           FROM meal_ratings WHERE meal_id IN (%s) GROUP BY meal_id) r ON r.meal_id = m.id
+                SET m.rating_sum = COALESCE(r.score_sum, 0), m.rating_count = COALESCE(r.score_count, 0)
+                WHERE m.id IN (%s)
+                """.formatted(placeholders, placeholders);
+            List<Object> args = new ArrayList<>(chunk.size() * 2);
+            args.addAll(chunk);
+            args.addAll(chunk);
+            jdbcTemplate.update(sql, args.toArray());
+        }
+    }
+
+    /** Rewrites the aggregates from meal_ratings wherever they have drifted; returns the meals fixed. */
+    public int reconcileAggregates() {
+        String sql = """
+            UPDATE meals m
+            LEFT JOIN (SELECT meal_id, SUM(score) AS score_sum, COUNT(*) AS score_count
+                       FROM meal_ratings GROUP BY meal_id) r ON r.meal_id = m.id
+            SET m.rating_sum = COALESCE(r.score_sum, 0), m.rating_count = COALESCE(r.score_count, 0)
+            WHERE m.rating_sum <> COALESCE(r.score_sum, 0) OR m.rating_count <> COALESCE(r.score_count, 0)
+            """;
+        return jdbcTemplate.update(sql);
+    }
+
+    public int deleteByMealId(Long mealId) {
+        return jdbcTemplate.update("DELETE FROM meal_ratings WHERE meal_id = ?", mealId);
+    }
+
+    public void forEachMealSlot(Collection<Long> mealIds, MealSlotHandler handler) {
+        if (mealIds.isEmpty()) {
+            return;
+        }
+        String placeholders = String.join(",", Collections.nCopies(mealIds.size(), "?"));
+        String sql = "SELECT hall_id, meal_date FROM meals WHERE id IN (" + placeholders + ")";
+        jdbcTemplate.query(sql, (RowCallbackHandler) rs -> {
+            Timestamp mealDate = rs.getTimestamp("meal_date");
+            handler.accept(rs.getLong("hall_id"), mealDate != null ? mealDate.toLocalDateTime() : null);
+        }, mealIds.toArray());
+    }
+
+    // Covered by idx_meals_hall_name_rating: the groups are read in index order, never from the meal rows
+    public List<DishRatingDTO> findDishRatings(Long hallId) {
+        String sql = """
+            SELECT hall_id, meal_name, SUM(rating_sum) AS score_sum, SUM(rating_count) AS score_count
+            FROM meals
+            WHERE rating_count > 0
+            """ + (hallId != null ? " AND hall_id = ?" : "") + """
+             GROUP BY hall_id, meal_name
+             ORDER BY hall_id, score_sum / score_count DESC, meal_name
+            """;
+        Object[] params = hallId != null ? new Object[] { hallId } : new Object[0];
+        return jdbcTemplate.query(sql, (rs, rowNum) -> {
+            long count = rs.getLong("score_count");
+            return new DishRatingDTO(rs.getLong("hall_id"), null, rs.getString("meal_name"),
+                    rs.getLong("score_sum") / (double) count, count);
+        }, params);
+    }
+
+    @FunctionalInterface
+    public interface MealSlotHandler {
+        void accept(long hallId, LocalDateTime mealDate);
+    }
+}
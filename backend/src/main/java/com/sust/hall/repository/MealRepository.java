@@ -2,54 +2,95 @@ package com.sust.hall.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import com.sust.hall.dto.MealDTO;
 import com.sust.hall.entity.Meal;
 import com.sust.hall.enums.MealType;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 
 @Repository
-public interface MealRepository extends JpaRepository<Meal, Long> {
+public interface MealRepository extends JpaRepository<Meal, Long>, MealSearchRepository {
 
-    
-    @Query("SELECT m FROM Meal m WHERE m.hall.id = :hallId ORDER BY m.mealDate DESC")
-    List<Meal> findByHallId(@Param("hallId") Long hallId);
+    // Read paths select MealDTO rows directly: one statement, no hall entity, no persistence-context bloat
+    String MEAL_DTO = "SELECT new com.sust.hall.dto.MealDTO(m.id, h.hallName, m.mealType, m.mealName, " +
+                      "m.description, m.price, m.quantity, m.mealDate, m.isAvailable, m.soldOut, m.createdAt, m.updatedAt, " +
+                      "m.ratingSum, m.ratingCount) " +
+                      "FROM Meal m JOIN m.hall h ";
 
-   
-    @Query("SELECT m FROM Meal m WHERE m.hall.id = :hallId AND m.mealType = :mealType ORDER BY m.mealDate DESC")
-    List<Meal> findByHallIdAndMealType(@Param("hallId") Long hallId, @Param("mealType") MealType mealType);
+    @Query(MEAL_DTO + "ORDER BY m.id")
+    List<MealDTO> findAllMeals();
 
-    
-    @Query("SELECT m FROM Meal m WHERE m.hall.id = :hallId AND DATE(m.mealDate) = CURDATE() ORDER BY m.mealType")
-    List<Meal> findTodaysMealsByHallId(@Param("hallId") Long hallId);
+    @Query(MEAL_DTO + "WHERE m.id = :id")
+    Optional<MealDTO> findMealById(@Param("id") Long id);
 
-    
-    @Query("SELECT m FROM Meal m WHERE m.hall.id = :hallId AND m.mealDate BETWEEN :startDate AND :endDate ORDER BY m.mealDate")
-    List<Meal> findMealsByHallAndDateRange(
+    @Query(MEAL_DTO + "WHERE m.hall.id = :hallId ORDER BY m.mealDate DESC")
+    List<MealDTO> findByHallId(@Param("hallId") Long hallId);
+
+    @Query(MEAL_DTO + "WHERE m.hall.id = :hallId AND m.mealType = :mealType ORDER BY m.mealDate DESC")
+    List<MealDTO> findByHallIdAndMealType(@Param("hallId") Long hallId, @Param("mealType") MealType mealType);
+
+    // Half-open range on the bare column so idx_meals_hall_date is used
+    @Query(MEAL_DTO + "WHERE m.hall.id = :hallId AND m.mealDate >= :dayStart AND m.mealDate < :dayEnd ORDER BY m.mealType")
+    List<MealDTO> findMealsByHallAndDay(@Param("hallId") Long hallId,
+                                        @Param("dayStart") LocalDateTime dayStart,
+                                        @Param("dayEnd") LocalDateTime dayEnd);
+
+    default List<MealDTO> findMealsByHallAndDay(Long hallId, LocalDate day) {
+        return findMealsByHallAndDay(hallId, day.atStartOfDay(), day.plusDays(1).atStartOfDay());
+    }
+
+    default List<MealDTO> findTodaysMealsByHallId(Long hallId) {
+        return findMealsByHallAndDay(hallId, LocalDate.now());
+    }
+
+    @Query(MEAL_DTO + "WHERE m.hall.id = :hallId AND m.mealDate BETWEEN :startDate AND :endDate ORDER BY m.mealDate")
+    List<MealDTO> findMealsByHallAndDateRange(
         @Param("hallId") Long hallId,
         @Param("startDate") LocalDateTime startDate,
         @Param("endDate") LocalDateTime endDate
     );
 
-    
-    @Query("SELECT m FROM Meal m WHERE m.isAvailable = true ORDER BY m.mealDate DESC")
-    List<Meal> findAllAvailableMeals();
+    @Query(MEAL_DTO + "WHERE m.isAvailable = true AND m.soldOut = false ORDER BY m.mealDate DESC")
+    List<MealDTO> findAllAvailableMeals();
+
+    @Query(MEAL_DTO + "WHERE m.hall.id = :hallId AND m.isAvailable = true AND m.soldOut = false ORDER BY m.mealDate DESC")
+    List<MealDTO> findAvailableMealsByHallId(@Param("hallId") Long hallId);
 
-    
-    @Query("SELECT m FROM Meal m WHERE m.hall.id = :hallId AND m.isAvailable = true ORDER BY m.mealDate DESC")
-    List<Meal> findAvailableMealsByHallId(@Param("hallId") Long hallId);
+    @Query(MEAL_DTO + "WHERE m.mealType = :mealType AND m.isAvailable = true AND m.soldOut = false ORDER BY m.mealDate DESC")
+    List<MealDTO> findByMealType(@Param("mealType") MealType mealType);
 
-   
-    @Query("SELECT m FROM Meal m WHERE m.mealType = :mealType AND m.isAvailable = true ORDER BY m.mealDate DESC")
-    List<Meal> findByMealType(@Param("mealType") MealType mealType);
+    @Query(MEAL_DTO + "WHERE m.hall.id = :hallId AND m.mealType = :mealType AND m.mealDate >= :dayStart AND m.mealDate < :dayEnd")
+    Optional<MealDTO> findMealByHallTypeAndDay(@Param("hallId") Long hallId,
+                                               @Param("mealType") MealType mealType,
+                                               @Param("dayStart") LocalDateTime dayStart,
+                                               @Param("dayEnd") LocalDateTime dayEnd);
 
-   
-    @Query("SELECT m FROM Meal m WHERE m.hall.id = :hallId AND m.mealType = :mealType AND DATE(m.mealDate) = CURDATE()")
-    Optional<Meal> findTodaysMealByHallAndType(@Param("hallId") Long hallId, @Param("mealType") MealType mealType);
+    default Optional<MealDTO> findTodaysMealByHallAndType(Long hallId, MealType mealType) {
+        LocalDate today = LocalDate.now();
+        return findMealByHallTypeAndDay(hallId, mealType, today.atStartOfDay(), today.plusDays(1).atStartOfDay());
+    }
 
-   
-    @Query("SELECT COUNT(m) FROM Meal m WHERE m.hall.id = :hallId AND m.isAvailable = true")
+    @Query("SELECT COUNT(m) FROM Meal m WHERE m.hall.id = :hallId AND m.isAvailable = true AND m.soldOut = false")
     Long countAvailableMealsByHall(@Param("hallId") Long hallId);
-}
\ No newline at end of file
+
+    // Integer.MIN_VALUE fetch size makes MySQL stream rows instead of buffering the result
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "-2147483648"))
+    @Query(MEAL_DTO +
+           "WHERE (:hallName IS NULL OR h.hallName = :hallName) " +
+           "AND (:mealType IS NULL OR m.mealType = :mealType) " +
+           "AND (:from IS NULL OR m.mealDate >= :from) " +
+           "AND (:to IS NULL OR m.mealDate < :to) " +
+           "ORDER BY m.id")
+    Stream<MealDTO> streamForExport(@Param("hallName") String hallName,
+                                    @Param("mealType") MealType mealType,
+                                    @Param("from") LocalDateTime from,
+                                    @Param("to") LocalDateTime to);
+}
@@ -0,0 +1,84 @@
+package com.sust.hall.repository;
+
+import com.sust.hall.enums.ReservationStatus;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+@Repository
+public class MealReservationRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public MealReservationRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public Optional<MealStockRow> findStock(Long mealId) {
+        String sql = "SELECT hall_id, quantity, meal_date, is_available, sold_out FROM meals WHERE id = ?";
+        List<MealStockRow> rows = jdbcTemplate.query(sql, (rs, rowNum) -> {
+            Timestamp mealDate = rs.getTimestamp("meal_date");
+            return new MealStockRow(rs.getLong("hall_id"), rs.getInt("quantity"),
+                    mealDate != null ? mealDate.toLocalDateTime() : null, rs.getBoolean("is_available"), rs.getBoolean("sold_out"));
+        }, mealId);
+        return rows.stream().findFirst();
+    }
+
+    public List<Long> findReservedUserIds(Long mealId) {
+        String sql = "SELECT user_id FROM meal_reservations WHERE meal_id = ? AND status = ?";
+        return jdbcTemplate.queryForList(sql, Long.class, mealId, ReservationStatus.RESERVED.name());
+    }
+
+    /** Throws DuplicateKeyException when a student already holds an open reservation for the meal. */
+    public void insertReservations(List<ReservationWrite> writes) {
+        String sql = """
+            INSERT INTO meal_reservations (meal_id, user_id, active_user_id, status, reserved_at)
+            VALUES (?, ?, ?, ?, ?)
+            """;
+        List<Object[]> args = new ArrayList<>(writes.size());
+        for (ReservationWrite write : writes) {
+            args.add(new Object[] { write.mealId(), write.userId(), write.userId(),
+                    ReservationStatus.RESERVED.name(), Timestamp.valueOf(write.at()) });
+        }
+        jdbcTemplate.batchUpdate(sql, args);
+    }
+
+    public void cancelReservations(List<ReservationWrite> writes) {
+        String sql = """
+            UPDATE meal_reservations SET status = ?, active_user_id = NULL, cancelled_at = ?
+            WHERE meal_id = ? AND active_user_id = ?
+            """;
+        List<Object[]> args = new ArrayList<>(writes.size());
+        for (ReservationWrite write : writes) {
+            args.add(new Object[] { ReservationStatus.CANCELLED.name(), Timestamp.valueOf(write.at()),
+                    write.mealId(), write.userId() });
+        }
+        jdbcTemplate.batchUpdate(sql, args);
+    }
+
+    /** Writes sold_out only; is_available belongs to the admins and is never touched here. */
+    public void updateSoldOut(Map<Long, Boolean> soldOut) {
+        String sql = "UPDATE meals SET sold_out = ?, updated_at = ? WHERE id = ?";
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> args = new ArrayList<>(soldOut.size());
+        soldOut.forEach((mealId, value) -> args.add(new Object[] { value, now, mealId }));
+        jdbcTemplate.batchUpdate(sql, args);
+    }
+
+    public int deleteByMealId(Long mealId) {
+        return jdbcTemplate.update("DELETE FROM meal_reservations WHERE meal_id = ?", mealId);
+    }
+
+    public record MealStockRow(long hallId, int quantity, LocalDateTime mealDate, boolean available, boolean soldOut) {
+    }
+
+    public record ReservationWrite(long mealId, long userId, LocalDateTime at) {
+    }
+}
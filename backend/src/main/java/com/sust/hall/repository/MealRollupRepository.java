@@ -0,0 +1,188 @@
+package com.sust.hall.repository;
+
+import com.sust.hall.dto.MealRollupDTO;
+import com.sust.hall.enums.MealRollupPeriod;
+import com.sust.hall.enums.MealType;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public class MealRollupRepository {
+
+    // Meals of a day that is still waiting for its rollup are kept until a flush has rebuilt it
+    private static final String NOT_DIRTY = " AND NOT EXISTS (SELECT 1 FROM meal_rollup_dirty d"
+            + " WHERE d.hall_id = m.hall_id AND d.bucket_date = DATE(m.meal_date))";
+
+    private static final RowMapper<MealRollupDTO> ROLLUP_MAPPER = (rs, rowNum) -> {
+        int count = rs.getInt("meal_count");
+        return new MealRollupDTO(rs.getLong("hall_id"), null, MealType.valueOf(rs.getString("meal_type")),
+                MealRollupPeriod.valueOf(rs.getString("period")), rs.getDate("bucket_date").toLocalDate(), count,
+                rs.getDouble("min_price"), count == 0 ? 0 : rs.getDouble("sum_price") / count,
+                rs.getDouble("max_price"), rs.getLong("total_quantity"));
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public MealRollupRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /** Replaces the day buckets in [from, to), for one hall or all, with aggregates of the meals table. */
+    public int rebuildDays(Long hallId, LocalDate from, LocalDate to) {
+        String hallFilter = hallId != null ? " AND hall_id = ?" : "";
+        List<Object> deleteParams = new ArrayList<>(List.of(MealRollupPeriod.DAY.name(), Date.valueOf(from),
+                Date.valueOf(to)));
+        if (hallId != null) {
+            deleteParams.add(hallId);
+        }
+        jdbcTemplate.update("DELETE FROM meal_rollups WHERE period = ? AND bucket_date >= ? AND bucket_date < ?"
+                + hallFilter, deleteParams.toArray());
+
+        String sql = """
+            INSERT INTO meal_rollups (hall_id, meal_type, period, bucket_date, meal_count,
+            min_price, max_price, sum_price, total_quantity, updated_at)
+            SELECT hall_id, meal_type, ?, DATE(meal_date), COUNT(*), MIN(price), MAX(price), SUM(price),
+                SUM(quantity), ?
+            FROM meals
+            WHERE meal_date >= ? AND meal_date < ?
+            """ + hallFilter + " GROUP BY hall_id, meal_type, DATE(meal_date)";
+        List<Object> params = new ArrayList<>(List.of(MealRollupPeriod.DAY.name(),
+                Timestamp.valueOf(LocalDateTime.now()), Timestamp.valueOf(from.atStartOfDay()),
+                Timestamp.valueOf(to.atStartOfDay())));
+        if (hallId != null) {
+            params.add(hallId);
+        }
+        return jdbcTemplate.update(sql, params.toArray());
+    }
+
+    /** Replaces the month buckets starting in [fromMonth, toMonth) with sums of their day buckets. */
+    public int rebuildMonths(Long hallId, LocalDate fromMonth, LocalDate toMonth) {
+        String hallFilter = hallId != null ? " AND hall_id = ?" : "";
+        List<Object> deleteParams = new ArrayList<>(List.of(MealRollupPeriod.MONTH.name(), Date.valueOf(fromMonth),
+                Date.valueOf(toMonth)));
+        if (hallId != null) {
+            deleteParams.add(hallId);
+        }
+        jdbcTemplate.update("DELETE FROM meal_rollups WHERE period = ? AND bucket_date >= ? AND bucket_date < ?"
+                + hallFilter, deleteParams.toArray());
+
+        String sql = """
+            INSERT INTO meal_rollups (hall_id, meal_type, period, bucket_date, meal_count,
+            min_price, max_price, sum_price, total_quantity, updated_at)
+            SELECT hall_id, meal_type, ?, DATE_FORMAT(bucket_date, '%Y-%m-01'), SUM(meal_count),
+                MIN(min_price), MAX(max_price), SUM(sum_price), SUM(total_quantity), ?
+            FROM meal_rollups
+            WHERE period = ? AND bucket_date >= ? AND bucket_date < ?
+            """ + hallFilter + " GROUP BY hall_id, meal_type, DATE_FORMAT(bucket_date, '%Y-%m-01')";
+        List<Object> params = new ArrayList<>(List.of(MealRollupPeriod.MONTH.name(),
+                Timestamp.valueOf(LocalDateTime.now()), MealRollupPeriod.DAY.name(), Date.valueOf(fromMonth),
+                Date.valueOf(toMonth)));
+        if (hallId != null) {
+            params.add(hallId);
+        }
+        return jdbcTemplate.update(sql, params.toArray());
+    }
+
+    /** Marks the days dirty in the caller's transaction; a day marked again gets a new version. */
+    public void markDirty(Collection<RollupDay> days) {
+        String sql = """
+            INSERT INTO meal_rollup_dirty (hall_id, bucket_date, version) VALUES (?, ?, 1)
+            ON DUPLICATE KEY UPDATE version = version + 1
+            """;
+        List<Object[]> args = new ArrayList<>(days.size());
+        for (RollupDay day : days) {
+            args.add(new Object[] { day.hallId(), Date.valueOf(day.day()) });
+        }
+        jdbcTemplate.batchUpdate(sql, args);
+    }
+
+    public List<DirtyDay> findDirtyDays(int limit) {
+        return jdbcTemplate.query("SELECT hall_id, bucket_date, version FROM meal_rollup_dirty ORDER BY id LIMIT ?",
+                (rs, rowNum) -> new DirtyDay(new RollupDay(rs.getLong("hall_id"),
+                        rs.getDate("bucket_date").toLocalDate()), rs.getLong("version")), limit);
+    }
+
+    /** Deletes the marks still at the version read; days marked again since then stay dirty. */
+    public void clearDirtyDays(List<DirtyDay> days) {
+        List<Object[]> args = new ArrayList<>(days.size());
+        for (DirtyDay dirty : days) {
+            args.add(new Object[] { dirty.day().hallId(), Date.valueOf(dirty.day().day()), dirty.version() });
+        }
+        jdbcTemplate.batchUpdate("DELETE FROM meal_rollup_dirty WHERE hall_id = ? AND bucket_date = ? AND version = ?",
+                args);
+    }
+
+    public List<MealRollupDTO> findRollups(Long hallId, MealType mealType, MealRollupPeriod period,
+            LocalDate from, LocalDate to) {
+        StringBuilder sql = new StringBuilder("""
+            SELECT hall_id, meal_type, period, bucket_date, meal_count, min_price, max_price, sum_price, total_quantity
+            FROM meal_rollups
+            WHERE period = ? AND bucket_date >= ? AND bucket_date < ?
+            """);
+        List<Object> params = new ArrayList<>(List.of(period.name(), Date.valueOf(from), Date.valueOf(to)));
+        if (hallId != null) {
+            sql.append(" AND hall_id = ?");
+            params.add(hallId);
+        }
+        if (mealType != null) {
+            sql.append(" AND meal_type = ?");
+            params.add(mealType.name());
+        }
+        sql.append(" ORDER BY bucket_date, hall_id, meal_type");
+        return jdbcTemplate.query(sql.toString(), ROLLUP_MAPPER, params.toArray());
+    }
+
+    public boolean isEmpty() {
+        return jdbcTemplate.queryForList("SELECT 1 FROM meal_rollups LIMIT 1", Integer.class).isEmpty();
+    }
+
+    public Optional<LocalDate[]> findMealDateRange() {
+        return jdbcTemplate.query("SELECT MIN(meal_date) AS first, MAX(meal_date) AS last FROM meals", rs -> {
+            if (!rs.next() || rs.getTimestamp("first") == null) {
+                return Optional.empty();
+            }
+            return Optional.of(new LocalDate[] { rs.getTimestamp("first").toLocalDateTime().toLocalDate(),
+                    rs.getTimestamp("last").toLocalDateTime().toLocalDate() });
+        });
+    }
+
+    /** Deletes the reservations of meals dated before {@code cutoff}, which go with them. */
+    public int deleteReservationsOfMealsBefore(LocalDateTime cutoff) {
+        String sql = "DELETE r FROM meal_reservations r JOIN meals m ON m.id = r.meal_id WHERE m.meal_date < ?"
+                + NOT_DIRTY;
+        return jdbcTemplate.update(sql, Timestamp.valueOf(cutoff));
+    }
+
+    /** Deletes the ratings of meals dated before {@code cutoff}, which go with them. */
+    public int deleteRatingsOfMealsBefore(LocalDateTime cutoff) {
+        String sql = "DELETE r FROM meal_ratings r JOIN meals m ON m.id = r.meal_id WHERE m.meal_date < ?"
+                + NOT_DIRTY;
+        return jdbcTemplate.update(sql, Timestamp.valueOf(cutoff));
+    }
+
+    /**
+     * Deletes at most {@code limit} meals dated before {@code cutoff}, so each
+     * call holds locks briefly. Days still marked dirty are skipped.
+     */
+    public int deleteMealsBefore(LocalDateTime cutoff, int limit) {
+        String sql = "DELETE FROM meals AS m WHERE m.meal_date < ?" + NOT_DIRTY + " ORDER BY m.meal_date LIMIT ?";
+        return jdbcTemplate.update(sql, Timestamp.valueOf(cutoff), limit);
+    }
+
+    public record RollupDay(Long hallId, LocalDate day) {
+    }
+
+    public record DirtyDay(RollupDay day, long version) {
+    }
+}
@@ -0,0 +1,23 @@
+package com.sust.hall.repository;
+
+import com.sust.hall.dto.CursorPage;
+import com.sust.hall.dto.MealDTO;
+import com.sust.hall.enums.MealType;
+
+import java.time.LocalDateTime;
+
+/** Custom fragment of {@link MealRepository} for the composed, keyset-paginated meal search. */
+public interface MealSearchRepository {
+
+    enum MealSort {
+        NEWEST,
+        OLDEST
+    }
+
+    /**
+     * Every filter is optional; {@code from} is inclusive and {@code to} exclusive.
+     * Pages are ordered by (meal_date, id) in the chosen direction.
+     */
+    CursorPage<MealDTO> searchMeals(Long hallId, MealType mealType, LocalDateTime from, LocalDateTime to,
+            Boolean available, MealSort sort, String cursor, int limit);
+}
@@ -0,0 +1,96 @@
+package com.sust.hall.repository;
+
+import com.sust.hall.dto.CursorPage;
+import com.sust.hall.dto.MealDTO;
+import com.sust.hall.enums.MealType;
+import com.sust.hall.exeptions.BadRequestException;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+class MealSearchRepositoryImpl implements MealSearchRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public CursorPage<MealDTO> searchMeals(Long hallId, MealType mealType, LocalDateTime from, LocalDateTime to,
+            Boolean available, MealSort sort, String cursor, int limit) {
+        // Meals without a date cannot take part in (meal_date, id) keyset paging
+        StringBuilder jpql = new StringBuilder(MealRepository.MEAL_DTO).append("WHERE m.mealDate IS NOT NULL");
+        Map<String, Object> params = new LinkedHashMap<>();
+        if (hallId != null) {
+            jpql.append(" AND m.hall.id = :hallId");
+            params.put("hallId", hallId);
+        }
+        if (mealType != null) {
+            jpql.append(" AND m.mealType = :mealType");
+            params.put("mealType", mealType);
+        }
+        if (from != null) {
+            jpql.append(" AND m.mealDate >= :from");
+            params.put("from", from);
+        }
+        if (to != null) {
+            jpql.append(" AND m.mealDate < :to");
+            params.put("to", to);
+        }
+        // Available means open for reservations: not closed by an admin and not sold out
+        if (Boolean.TRUE.equals(available)) {
+            jpql.append(" AND m.isAvailable = true AND m.soldOut = false");
+        } else if (available != null) {
+            jpql.append(" AND (m.isAvailable = false OR m.soldOut = true)");
+        }
+
+        boolean newest = sort == MealSort.NEWEST;
+        if (cursor != null && !cursor.isBlank()) {
+            String[] parts = KeysetCursor.decode(cursor, 3);
+            if (!sort.name().equals(parts[0])) {
+                throw new BadRequestException("Cursor does not match sort order " + sort);
+            }
+            String op = newest ? "<" : ">";
+            jpql.append(" AND (m.mealDate ").append(op).append(" :lastDate OR (m.mealDate = :lastDate AND m.id ")
+                .append(op).append(" :lastId))");
+            params.put("lastDate", parseCursorDate(parts[1]));
+            params.put("lastId", parseCursorId(parts[2]));
+        }
+        jpql.append(newest ? " ORDER BY m.mealDate DESC, m.id DESC" : " ORDER BY m.mealDate ASC, m.id ASC");
+
+        TypedQuery<MealDTO> query = entityManager.createQuery(jpql.toString(), MealDTO.class);
+        params.forEach(query::setParameter);
+        query.setMaxResults(limit + 1);
+        List<MealDTO> rows = query.getResultList();
+
+        boolean hasMore = rows.size() > limit;
+        if (!hasMore) {
+            return new CursorPage<>(rows, null, false);
+        }
+        List<MealDTO> page = new ArrayList<>(rows.subList(0, limit));
+        MealDTO last = page.get(limit - 1);
+        return new CursorPage<>(page, KeysetCursor.encode(sort.name(), last.getMealDate(), last.getId()), true);
+    }
+
+    private static Long parseCursorId(String value) {
+        try {
+            return Long.valueOf(value);
+        } catch (NumberFormatException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
+    }
+
+    private static LocalDateTime parseCursorDate(String value) {
+        try {
+            return LocalDateTime.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.sust.hall.repository;
+
+import com.sust.hall.dto.OccupancyPointDTO;
+import com.sust.hall.entity.HallOccupancyRollup;
+import com.sust.hall.entity.HallOccupancySample;
+import com.sust.hall.enums.OccupancyResolution;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+@Repository
+public class OccupancyHistoryRepository {
+
+    private static final RowMapper<OccupancyPointDTO> SAMPLE_MAPPER = (rs, rowNum) -> {
+        int occupancy = rs.getInt("occupancy");
+        return new OccupancyPointDTO(rs.getTimestamp("sampled_at").toLocalDateTime(),
+                occupancy, occupancy, occupancy, occupancy, 1);
+    };
+
+    private static final RowMapper<OccupancyPointDTO> ROLLUP_MAPPER = (rs, rowNum) -> {
+        int count = rs.getInt("sample_count");
+        return new OccupancyPointDTO(rs.getTimestamp("bucket_start").toLocalDateTime(),
+                rs.getInt("min_occupancy"), rs.getInt("max_occupancy"),
+                count == 0 ? 0 : rs.getLong("sum_occupancy") / (double) count,
+                rs.getInt("last_occupancy"), count);
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public OccupancyHistoryRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void insertSamples(List<HallOccupancySample> samples) {
+        String sql = "INSERT INTO hall_occupancy_samples (hall_id, sampled_at, occupancy, capacity) VALUES (?, ?, ?, ?)";
+        List<Object[]> args = new ArrayList<>(samples.size());
+        for (HallOccupancySample sample : samples) {
+            args.add(new Object[] { sample.getHallId(), Timestamp.valueOf(sample.getSampledAt()),
+                    sample.getOccupancy(), sample.getCapacity() });
+        }
+        jdbcTemplate.batchUpdate(sql, args);
+    }
+
+    /** Merges pre-aggregated buckets into the stored ones, creating them when missing. */
+    public void upsertRollups(List<HallOccupancyRollup> rollups) {
+        String sql = """
+            INSERT INTO hall_occupancy_rollups
+            (hall_id, resolution, bucket_start, min_occupancy, max_occupancy, sum_occupancy, sample_count, last_occupancy)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?)
+            ON DUPLICATE KEY UPDATE
+            min_occupancy = LEAST(min_occupancy, VALUES(min_occupancy)),
+            max_occupancy = GREATEST(max_occupancy, VALUES(max_occupancy)),
+            sum_occupancy = sum_occupancy + VALUES(sum_occupancy),
+            sample_count = sample_count + VALUES(sample_count),
+            last_occupancy = VALUES(last_occupancy)
+            """;
+        List<Object[]> args = new ArrayList<>(rollups.size());
+        for (HallOccupancyRollup rollup : rollups) {
+            args.add(new Object[] { rollup.getHallId(), rollup.getResolution().name(),
+                    Timestamp.valueOf(rollup.getBucketStart()), rollup.getMinOccupancy(),
+                    rollup.getMaxOccupancy(), rollup.getSumOccupancy(), rollup.getSampleCount(),
+                    rollup.getLastOccupancy() });
+        }
+        jdbcTemplate.batchUpdate(sql, args);
+    }
+
+    /** Deletes at most {@code limit} raw samples older than {@code cutoff}, so each call holds locks briefly. */
+    public int deleteSamplesBefore(LocalDateTime cutoff, int limit) {
+        String sql = "DELETE FROM hall_occupancy_samples WHERE sampled_at < ? ORDER BY sampled_at LIMIT ?";
+        return jdbcTemplate.update(sql, Timestamp.valueOf(cutoff), limit);
+    }
+
+    public List<OccupancyPointDTO> findSamples(Long hallId, LocalDateTime from, LocalDateTime to) {
+        String sql = """
+            SELECT sampled_at, occupancy FROM hall_occupancy_samples
+            WHERE hall_id = ? AND sampled_at >= ? AND sampled_at < ?
+            ORDER BY sampled_at, id
+            """;
+        return jdbcTemplate.query(sql, SAMPLE_MAPPER, hallId, Timestamp.valueOf(from), Timestamp.valueOf(to));
+    }
+
+    public List<OccupancyPointDTO> findRollups(Long hallId, OccupancyResolution resolution,
+            LocalDateTime from, LocalDateTime to) {
+        String sql = """
+            SELECT bucket_start, min_occupancy, max_occupancy, sum_occupancy, sample_count, last_occupancy
+            FROM hall_occupancy_rollups
+            WHERE hall_id = ? AND resolution = ? AND bucket_start >= ? AND bucket_start < ?
+            ORDER BY bucket_start
+            """;
+        return jdbcTemplate.query(sql, ROLLUP_MAPPER, hallId, resolution.name(),
+                Timestamp.valueOf(from), Timestamp.valueOf(to));
+    }
+}
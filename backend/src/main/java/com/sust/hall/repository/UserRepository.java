@@ -1,16 +1,24 @@
 package com.sust.hall.repository;
 
+import com.sust.hall.dto.CursorPage;
+import com.sust.hall.dto.UserSummaryDTO;
 import com.sust.hall.entity.User;
 import com.sust.hall.enums.AccountStatus;
 import com.sust.hall.enums.UserRole;
+import com.sust.hall.exeptions.BadRequestException;
+import com.sust.hall.security.TokenRevocationRegistry;
+import com.sust.hall.security.UserPrincipalCache;
 
 import lombok.extern.slf4j.Slf4j;
 
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
 import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
@@ -18,17 +26,53 @@ import java.sql.SQLException;
 import java.sql.Statement;
 import java.sql.Timestamp;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.LongStream;
 
 @Repository
 @Slf4j
 public class UserRepository {
 
+    // Explicit column list for listings; the mapper below reads these by index
+    private static final String SUMMARY_COLUMNS = "id, name, email, hall_name, role, account_status, created_at";
+
+    private static final RowMapper<UserSummaryDTO> USER_SUMMARY_MAPPER = (rs, rowNum) -> {
+        String accountStatus = rs.getString(6);
+        Timestamp createdAt = rs.getTimestamp(7);
+        return new UserSummaryDTO(
+            rs.getLong(1),
+            rs.getString(2),
+            rs.getString(3),
+            rs.getString(4),
+            UserRole.valueOf(rs.getString(5)),
+            accountStatus != null ? AccountStatus.valueOf(accountStatus) : AccountStatus.PENDING,
+            createdAt != null ? createdAt.toLocalDateTime() : null);
+    };
+
+    // Keeps IN lists well below max_allowed_packet and the optimizer's range limits
+    private static final int IN_LIST_CHUNK = 500;
+
+    // Every token_version bump also stamps token_version_changed_at, which other instances poll by
+    static final String BUMP_TOKEN_VERSION =
+            "token_version = token_version + 1, token_version_changed_at = CURRENT_TIMESTAMP(3)";
+
     private final JdbcTemplate jdbcTemplate;
+    private final UserPrincipalCache principalCache;
+    private final TokenRevocationRegistry tokenRevocations;
 
-    public UserRepository(JdbcTemplate jdbcTemplate) {
+    public UserRepository(JdbcTemplate jdbcTemplate, UserPrincipalCache principalCache,
+            TokenRevocationRegistry tokenRevocations) {
         this.jdbcTemplate = jdbcTemplate;
+        this.principalCache = principalCache;
+        this.tokenRevocations = tokenRevocations;
     }
 
     public User save(User user) {
@@ -64,6 +108,7 @@ public class UserRepository {
                 user.getPassword(),
                 user.getAccountStatus().name(),
                 user.getId());
+            afterCommit(() -> principalCache.evictById(user.getId()));
             return user;
         }
     }
@@ -106,43 +151,98 @@ public class UserRepository {
         return count != null && count > 0;
     }
 
-    public List<User> findAll() {
-        String sql = "SELECT * FROM users ORDER BY created_at DESC";
-        return jdbcTemplate.query(sql, new UserRowMapper());
+    public List<UserSummaryDTO> findAll() {
+        String sql = "SELECT " + SUMMARY_COLUMNS + " FROM users ORDER BY created_at DESC";
+        return jdbcTemplate.query(sql, USER_SUMMARY_MAPPER);
     }
 
-    public List<User> findAllUsers() {
+    public List<UserSummaryDTO> findAllUsers() {
         return findAll();
     }
 
-    public List<User> findUsersByHall(String hallName) {
-        String sql = "SELECT * FROM users WHERE hall_name = ? ORDER BY name";
-        return jdbcTemplate.query(sql, new UserRowMapper(), hallName);
+    public List<UserSummaryDTO> findUsersByHall(String hallName) {
+        String sql = "SELECT " + SUMMARY_COLUMNS + " FROM users WHERE hall_name = ? ORDER BY name";
+        return jdbcTemplate.query(sql, USER_SUMMARY_MAPPER, hallName);
     }
 
-    public List<User> findUsersByRole(UserRole role) {
-        String sql = "SELECT * FROM users WHERE role = ? ORDER BY name";
-        return jdbcTemplate.query(sql, new UserRowMapper(), role.name());
+    public List<UserSummaryDTO> findUsersByRole(UserRole role) {
+        String sql = "SELECT " + SUMMARY_COLUMNS + " FROM users WHERE role = ? ORDER BY name";
+        return jdbcTemplate.query(sql, USER_SUMMARY_MAPPER, role.name());
     }
 
-    public List<User> findUsersByHallAndRole(String hallName, UserRole role) {
-        String sql = "SELECT * FROM users WHERE hall_name = ? AND role = ? ORDER BY name";
-        return jdbcTemplate.query(sql, new UserRowMapper(), hallName, role.name());
+    public List<UserSummaryDTO> findUsersByHallAndRole(String hallName, UserRole role) {
+        String sql = "SELECT " + SUMMARY_COLUMNS + " FROM users WHERE hall_name = ? AND role = ? ORDER BY name";
+        return jdbcTemplate.query(sql, USER_SUMMARY_MAPPER, hallName, role.name());
     }
 
     public int updateUser(Long id, String name, String email, String hallName, UserRole role) {
         String sql = "UPDATE users SET name = ?, email = ?, hall_name = ?, role = ? WHERE id = ?";
-        return jdbcTemplate.update(sql, name, email, hallName, role.name(), id);
+        int updated = jdbcTemplate.update(sql, name, email, hallName, role.name(), id);
+        afterCommit(() -> principalCache.evictById(id));
+        return updated;
     }
 
     public int updateUserPassword(Long id, String password) {
         String sql = "UPDATE users SET password = ? WHERE id = ?";
-        return jdbcTemplate.update(sql, password, id);
+        int updated = jdbcTemplate.update(sql, password, id);
+        afterCommit(() -> principalCache.evictById(id));
+        return updated;
     }
 
     public int deleteUser(Long id) {
         String sql = "DELETE FROM users WHERE id = ?";
-        return jdbcTemplate.update(sql, id);
+        int updated = jdbcTemplate.update(sql, id);
+        afterCommit(() -> {
+            principalCache.evictById(id);
+            tokenRevocations.markDeleted(id);
+        });
+        return updated;
+    }
+
+    public int incrementTokenVersion(Long id) {
+        String sql = "UPDATE users SET " + BUMP_TOKEN_VERSION + " WHERE id = ?";
+        if (jdbcTemplate.update(sql, id) == 0) {
+            return 0;
+        }
+        Integer version = jdbcTemplate.queryForObject("SELECT token_version FROM users WHERE id = ?", Integer.class, id);
+        afterCommit(() -> {
+            tokenRevocations.updateVersion(id, version);
+            principalCache.evictById(id);
+        });
+        return version;
+    }
+
+    public Map<Long, Integer> findBumpedTokenVersions() {
+        String sql = "SELECT id, token_version FROM users WHERE token_version > 0";
+        Map<Long, Integer> versions = new HashMap<>();
+        jdbcTemplate.query(sql, rs -> {
+            versions.put(rs.getLong(1), rs.getInt(2));
+        });
+        return versions;
+    }
+
+    /** Token versions bumped after {@code since}, or every stamped bump when it is null. */
+    public List<TokenVersionChange> findTokenVersionChanges(LocalDateTime since) {
+        String sql = "SELECT id, token_version, token_version_changed_at FROM users WHERE token_version_changed_at ";
+        RowMapper<TokenVersionChange> mapper = (rs, rowNum) -> new TokenVersionChange(rs.getLong(1), rs.getInt(2),
+                rs.getTimestamp(3).toLocalDateTime());
+        if (since == null) {
+            return jdbcTemplate.query(sql + "IS NOT NULL", mapper);
+        }
+        return jdbcTemplate.query(sql + "> ?", mapper, Timestamp.valueOf(since));
+    }
+
+    public Optional<LocalDateTime> findLatestTokenVersionChange() {
+        Timestamp latest = jdbcTemplate.queryForObject("SELECT MAX(token_version_changed_at) FROM users",
+                Timestamp.class);
+        return Optional.ofNullable(latest).map(Timestamp::toLocalDateTime);
+    }
+
+    public record TokenVersionChange(long userId, int version, LocalDateTime changedAt) {
+    }
+
+    public List<Long> findAllIds() {
+        return jdbcTemplate.queryForList("SELECT id FROM users", Long.class);
     }
 
     public List<String> findAllHallNames() {
@@ -200,71 +300,345 @@ public class UserRepository {
             });
     }
 
-    public List<User> findUsersByAccountStatus(AccountStatus status) {
-        String sql = "SELECT * FROM users WHERE account_status = ? ORDER BY created_at DESC";
-        return jdbcTemplate.query(sql, new UserRowMapper(), status.name());
+    public List<UserSummaryDTO> findUsersByAccountStatus(AccountStatus status) {
+        String sql = "SELECT " + SUMMARY_COLUMNS + " FROM users WHERE account_status = ? ORDER BY created_at DESC";
+        return jdbcTemplate.query(sql, USER_SUMMARY_MAPPER, status.name());
     }
 
-    public List<User> findPendingUsers() {
+    public List<UserSummaryDTO> findPendingUsers() {
         return findUsersByAccountStatus(AccountStatus.PENDING);
     }
 
-    public List<User> findApprovedUsers() {
+    public List<UserSummaryDTO> findApprovedUsers() {
         return findUsersByAccountStatus(AccountStatus.APPROVED);
     }
 
-    public List<User> findRejectedUsers() {
+    public List<UserSummaryDTO> findRejectedUsers() {
         return findUsersByAccountStatus(AccountStatus.REJECTED);
     }
 
-    public List<User> findSuspendedUsers() {
+    public List<UserSummaryDTO> findSuspendedUsers() {
         return findUsersByAccountStatus(AccountStatus.SUSPENDED);
     }
 
     public int updateUserStatus(Long id, AccountStatus status) {
         String sql = "UPDATE users SET account_status = ? WHERE id = ?";
-        return jdbcTemplate.update(sql, status.name(), id);
+        int updated = jdbcTemplate.update(sql, status.name(), id);
+        afterCommit(() -> principalCache.evictById(id));
+        return updated;
     }
 
     public int updateUserRole(Long id, UserRole role) {
         String sql = "UPDATE users SET role = ? WHERE id = ?";
-        return jdbcTemplate.update(sql, role.name(), id);
+        int updated = jdbcTemplate.update(sql, role.name(), id);
+        afterCommit(() -> principalCache.evictById(id));
+        return updated;
     }
 
     public int updateUserRoleAndStatus(Long id, UserRole role, AccountStatus status) {
         String sql = "UPDATE users SET role = ?, account_status = ? WHERE id = ?";
-        return jdbcTemplate.update(sql, role.name(), status.name(), id);
+        int updated = jdbcTemplate.update(sql, role.name(), status.name(), id);
+        afterCommit(() -> principalCache.evictById(id));
+        return updated;
     }
 
     public int updateUserHall(Long id, String hallName) {
         String sql = "UPDATE users SET hall_name = ? WHERE id = ?";
-        return jdbcTemplate.update(sql, hallName, id);
+        int updated = jdbcTemplate.update(sql, hallName, id);
+        afterCommit(() -> principalCache.evictById(id));
+        return updated;
+    }
+
+    /** Ids among {@code userIds} of approved students with no hall yet, oldest registration first. */
+    public long[] findUnassignedStudentIds(List<Long> userIds) {
+        String base = "SELECT id FROM users WHERE role = ? AND account_status = ? "
+                + "AND (hall_name IS NULL OR hall_name = '')";
+        LongStream.Builder ids = LongStream.builder();
+        RowCallbackHandler collect = rs -> ids.add(rs.getLong(1));
+        for (List<Long> chunk : chunks(userIds)) {
+            List<Object> params = new ArrayList<>();
+            params.add(UserRole.STUDENT.name());
+            params.add(AccountStatus.APPROVED.name());
+            params.addAll(chunk);
+            jdbcTemplate.query(base + " AND id IN (" + placeholders(chunk.size()) + ") ORDER BY created_at, id",
+                    collect, params.toArray());
+        }
+        return ids.build().toArray();
+    }
+
+    /**
+     * Sets {@code hallName} on users {@code ids[from..to)} that still have no hall,
+     * one statement per chunk, bumping their token version since the hall is a
+     * token claim. Returns how many rows were actually assigned.
+     */
+    public int assignHall(String hallName, long[] ids, int from, int to) {
+        int updated = 0;
+        List<Long> assigned = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            assigned.add(ids[i]);
+        }
+        for (List<Long> chunk : chunks(assigned)) {
+            String sql = "UPDATE users SET hall_name = ?, " + BUMP_TOKEN_VERSION
+                    + " WHERE (hall_name IS NULL OR hall_name = '') AND id IN ("
+                    + placeholders(chunk.size()) + ")";
+            List<Object> params = new ArrayList<>();
+            params.add(hallName);
+            params.addAll(chunk);
+            updated += jdbcTemplate.update(sql, params.toArray());
+        }
+        publishTokenVersions(assigned);
+        return updated;
     }
 
-    public List<User> searchUsers(String searchTerm) {
-        String sql = "SELECT * FROM users WHERE name LIKE ? OR email LIKE ? OR hall_name LIKE ? ORDER BY name";
+    public List<UserSummaryDTO> searchUsers(String searchTerm) {
+        String sql = "SELECT " + SUMMARY_COLUMNS + " FROM users WHERE name LIKE ? OR email LIKE ? OR hall_name LIKE ? ORDER BY name";
         String likeTerm = "%" + searchTerm + "%";
-        return jdbcTemplate.query(sql, new UserRowMapper(), likeTerm, likeTerm, likeTerm);
+        return jdbcTemplate.query(sql, USER_SUMMARY_MAPPER, likeTerm, likeTerm, likeTerm);
+    }
+
+    public List<UserSummaryDTO> findUsersWithPagination(int offset, int limit) {
+        String sql = "SELECT " + SUMMARY_COLUMNS + " FROM users ORDER BY created_at DESC LIMIT ? OFFSET ?";
+        return jdbcTemplate.query(sql, USER_SUMMARY_MAPPER, limit, offset);
+    }
+
+    public enum UserSort {
+        // created_at DESC, id DESC
+        NEWEST,
+        // name ASC, id ASC
+        NAME
+    }
+
+    /**
+     * Keyset-paginated listing with optional filters. The cursor encodes the sort
+     * key of the last returned row, so every page is an index range scan no
+     * matter how deep it is.
+     */
+    public CursorPage<UserSummaryDTO> findUserPage(String hallName, UserRole role, AccountStatus status,
+            UserSort sort, String cursor, int limit) {
+        StringBuilder sql = new StringBuilder("SELECT " + SUMMARY_COLUMNS + " FROM users WHERE 1 = 1");
+        List<Object> params = new ArrayList<>();
+        if (hallName != null) {
+            sql.append(" AND hall_name = ?");
+            params.add(hallName);
+        }
+        if (role != null) {
+            sql.append(" AND role = ?");
+            params.add(role.name());
+        }
+        if (status != null) {
+            sql.append(" AND account_status = ?");
+            params.add(status.name());
+        }
+
+        if (cursor != null && !cursor.isBlank()) {
+            String[] parts = KeysetCursor.decode(cursor, 3);
+            if (!sort.name().equals(parts[0])) {
+                throw new BadRequestException("Cursor does not match sort order " + sort);
+            }
+            Long lastId = parseCursorId(parts[2]);
+            if (sort == UserSort.NEWEST) {
+                Timestamp lastCreatedAt = parseCursorTimestamp(parts[1]);
+                sql.append(" AND (created_at < ? OR (created_at = ? AND id < ?))");
+                params.add(lastCreatedAt);
+                params.add(lastCreatedAt);
+            } else {
+                sql.append(" AND (name > ? OR (name = ? AND id > ?))");
+                params.add(parts[1]);
+                params.add(parts[1]);
+            }
+            params.add(lastId);
+        }
+
+        sql.append(sort == UserSort.NEWEST ? " ORDER BY created_at DESC, id DESC" : " ORDER BY name ASC, id ASC");
+        sql.append(" LIMIT ?");
+        params.add(limit + 1);
+
+        List<UserSummaryDTO> rows = jdbcTemplate.query(sql.toString(), USER_SUMMARY_MAPPER, params.toArray());
+        boolean hasMore = rows.size() > limit;
+        if (!hasMore) {
+            return new CursorPage<>(rows, null, false);
+        }
+        List<UserSummaryDTO> page = new ArrayList<>(rows.subList(0, limit));
+        UserSummaryDTO last = page.get(limit - 1);
+        String nextCursor = sort == UserSort.NEWEST
+            ? KeysetCursor.encode(sort.name(), last.getCreatedAt(), last.getId())
+            : KeysetCursor.encode(sort.name(), last.getName(), last.getId());
+        return new CursorPage<>(page, nextCursor, true);
     }
 
-    public List<User> findUsersWithPagination(int offset, int limit) {
-        String sql = "SELECT * FROM users ORDER BY created_at DESC LIMIT ? OFFSET ?";
-        return jdbcTemplate.query(sql, new UserRowMapper(), limit, offset);
+    private static Long parseCursorId(String value) {
+        try {
+            return Long.valueOf(value);
+        } catch (NumberFormatException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
+    }
+
+    private static Timestamp parseCursorTimestamp(String value) {
+        try {
+            return Timestamp.valueOf(LocalDateTime.parse(value));
+        } catch (DateTimeParseException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
     }
 
-    public List<User> findUsersByRoleAndStatus(UserRole role, AccountStatus status) {
-        String sql = "SELECT * FROM users WHERE role = ? AND account_status = ? ORDER BY name";
-        return jdbcTemplate.query(sql, new UserRowMapper(), role.name(), status.name());
+    public List<UserSummaryDTO> findUsersByRoleAndStatus(UserRole role, AccountStatus status) {
+        String sql = "SELECT " + SUMMARY_COLUMNS + " FROM users WHERE role = ? AND account_status = ? ORDER BY name";
+        return jdbcTemplate.query(sql, USER_SUMMARY_MAPPER, role.name(), status.name());
     }
 
+    /** Updates the status of many users with chunked IN-list statements; returns rows changed. */
     public int bulkUpdateUserStatus(List<Long> userIds, AccountStatus status) {
-        String sql = "UPDATE users SET account_status = ? WHERE id = ?";
-        int[][] results = jdbcTemplate.batchUpdate(sql, userIds, userIds.size(), 
-            (ps, userId) -> {
-                ps.setString(1, status.name());
-                ps.setLong(2, userId);
+        int updated = 0;
+        for (List<Long> chunk : chunks(userIds)) {
+            String sql = "UPDATE users SET account_status = ? WHERE account_status <> ? AND id IN (" + placeholders(chunk.size()) + ")";
+            List<Object> params = new ArrayList<>();
+            params.add(status.name());
+            params.add(status.name());
+            params.addAll(chunk);
+            updated += jdbcTemplate.update(sql, params.toArray());
+        }
+        afterCommit(() -> principalCache.evictAllById(userIds));
+        return updated;
+    }
+
+    public int bulkUpdateUserRole(List<Long> userIds, UserRole role) {
+        int updated = 0;
+        for (List<Long> chunk : chunks(userIds)) {
+            String sql = "UPDATE users SET role = ? WHERE role <> ? AND id IN (" + placeholders(chunk.size()) + ")";
+            List<Object> params = new ArrayList<>();
+            params.add(role.name());
+            params.add(role.name());
+            params.addAll(chunk);
+            updated += jdbcTemplate.update(sql, params.toArray());
+        }
+        afterCommit(() -> principalCache.evictAllById(userIds));
+        return updated;
+    }
+
+    /** Bumps the users' token versions; the registry and principal cache see them once the caller commits. */
+    public void incrementTokenVersions(List<Long> userIds) {
+        Map<Long, Integer> versions = new HashMap<>();
+        for (List<Long> chunk : chunks(userIds)) {
+            String in = placeholders(chunk.size());
+            jdbcTemplate.update("UPDATE users SET " + BUMP_TOKEN_VERSION + " WHERE id IN (" + in + ")", chunk.toArray());
+            jdbcTemplate.query("SELECT id, token_version FROM users WHERE id IN (" + in + ")",
+                rs -> {
+                    versions.put(rs.getLong(1), rs.getInt(2));
+                }, chunk.toArray());
+        }
+        afterCommit(() -> {
+            tokenRevocations.updateVersions(versions);
+            principalCache.evictAllById(userIds);
+        });
+    }
+
+    /**
+     * Passes the current token versions of these users to the revocation registry
+     * and drops their principals, once the caller's transaction commits.
+     */
+    public void publishTokenVersions(Collection<Long> userIds) {
+        Map<Long, Integer> versions = new HashMap<>();
+        for (List<Long> chunk : chunks(new ArrayList<>(userIds))) {
+            jdbcTemplate.query("SELECT id, token_version FROM users WHERE id IN (" + placeholders(chunk.size()) + ")",
+                rs -> {
+                    versions.put(rs.getLong(1), rs.getInt(2));
+                }, chunk.toArray());
+        }
+        afterCommit(() -> {
+            tokenRevocations.updateVersions(versions);
+            principalCache.evictAllById(userIds);
+        });
+    }
+
+    public Map<Long, UserSummaryDTO> findSummariesByIds(List<Long> userIds) {
+        Map<Long, UserSummaryDTO> found = new HashMap<>();
+        for (List<Long> chunk : chunks(userIds)) {
+            String sql = "SELECT " + SUMMARY_COLUMNS + " FROM users WHERE id IN (" + placeholders(chunk.size()) + ")";
+            for (UserSummaryDTO user : jdbcTemplate.query(sql, USER_SUMMARY_MAPPER, chunk.toArray())) {
+                found.put(user.getId(), user);
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Streams matching users to the consumer one row at a time over a forward-only
+     * cursor, so exports run in constant memory regardless of table size.
+     */
+    public void streamUserSummaries(String hallName, UserRole role, AccountStatus status,
+            Consumer<UserSummaryDTO> consumer) {
+        StringBuilder sql = new StringBuilder("SELECT " + SUMMARY_COLUMNS + " FROM users WHERE 1 = 1");
+        List<Object> params = new ArrayList<>();
+        if (hallName != null) {
+            sql.append(" AND hall_name = ?");
+            params.add(hallName);
+        }
+        if (role != null) {
+            sql.append(" AND role = ?");
+            params.add(role.name());
+        }
+        if (status != null) {
+            sql.append(" AND account_status = ?");
+            params.add(status.name());
+        }
+        sql.append(" ORDER BY id");
+
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(sql.toString(),
+                ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            // MySQL Connector/J only streams rows with this exact fetch size
+            ps.setFetchSize(Integer.MIN_VALUE);
+            for (int i = 0; i < params.size(); i++) {
+                ps.setObject(i + 1, params.get(i));
+            }
+            return ps;
+        }, (RowCallbackHandler) rs -> consumer.accept(USER_SUMMARY_MAPPER.mapRow(rs, 0)));
+    }
+
+    public List<Long> findIdsByFilter(String hallName, AccountStatus status, UserRole role) {
+        StringBuilder sql = new StringBuilder("SELECT id FROM users WHERE 1 = 1");
+        List<Object> params = new ArrayList<>();
+        if (hallName != null) {
+            sql.append(" AND hall_name = ?");
+            params.add(hallName);
+        }
+        if (status != null) {
+            sql.append(" AND account_status = ?");
+            params.add(status.name());
+        }
+        if (role != null) {
+            sql.append(" AND role = ?");
+            params.add(role.name());
+        }
+        sql.append(" ORDER BY id");
+        return jdbcTemplate.queryForList(sql.toString(), Long.class, params.toArray());
+    }
+
+    // Caches must not see a write that may still roll back, nor miss one that commits
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
             });
-        return results.length;
+        } else {
+            action.run();
+        }
+    }
+
+    private static List<List<Long>> chunks(List<Long> ids) {
+        List<List<Long>> chunks = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i += IN_LIST_CHUNK) {
+            chunks.add(ids.subList(i, Math.min(ids.size(), i + IN_LIST_CHUNK)));
+        }
+        return chunks;
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
     }
 
     public int approveUser(Long id) {
@@ -289,9 +663,9 @@ public class UserRepository {
         return count != null && count > 0;
     }
 
-    public List<User> findApprovedUsersByHall(String hallName) {
-        String sql = "SELECT * FROM users WHERE hall_name = ? AND account_status = 'APPROVED' ORDER BY name";
-        return jdbcTemplate.query(sql, new UserRowMapper(), hallName);
+    public List<UserSummaryDTO> findApprovedUsersByHall(String hallName) {
+        String sql = "SELECT " + SUMMARY_COLUMNS + " FROM users WHERE hall_name = ? AND account_status = 'APPROVED' ORDER BY name";
+        return jdbcTemplate.query(sql, USER_SUMMARY_MAPPER, hallName);
     }
 
     public Integer countApprovedUsersByHall(String hallName) {
@@ -339,6 +713,7 @@ public class UserRepository {
             if (timestamp != null) {
                 user.setCreatedAt(timestamp.toLocalDateTime());
             }
+            user.setTokenVersion(rs.getInt("token_version"));
             
             return user;
         }
@@ -0,0 +1,97 @@
+package com.sust.hall.repository;
+
+import com.sust.hall.enums.WaitlistStatus;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public class WaitlistRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public WaitlistRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /** Throws DuplicateKeyException when the user already has an open entry. */
+    public long insert(Long hallId, Long userId) {
+        String sql = "INSERT INTO hall_waitlist (hall_id, user_id, active_user_id, status, enqueued_at) VALUES (?, ?, ?, ?, ?)";
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.update(connection -> {
+            PreparedStatement ps = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
+            ps.setLong(1, hallId);
+            ps.setLong(2, userId);
+            ps.setLong(3, userId);
+            ps.setString(4, WaitlistStatus.WAITING.name());
+            ps.setTimestamp(5, Timestamp.valueOf(LocalDateTime.now()));
+            return ps;
+        }, keyHolder);
+        return keyHolder.getKey().longValue();
+    }
+
+    public int cancel(long entryId) {
+        String sql = "UPDATE hall_waitlist SET status = ?, active_user_id = NULL, closed_at = ? WHERE id = ? AND status = ?";
+        return jdbcTemplate.update(sql, WaitlistStatus.CANCELLED.name(), LocalDateTime.now(), entryId,
+                WaitlistStatus.WAITING.name());
+    }
+
+    /**
+     * Gives the entry's student a seat in one statement: closes the entry, takes a
+     * seat in the hall and sets the student's hall, bumping their token version
+     * since the hall is a token claim. The WHERE clause only matches
+     * while the entry is still waiting, the hall has a free seat and the student
+     * has no hall, so concurrent promotions can never assign the same seat or
+     * student twice. Returns false when any of those no longer holds.
+     */
+    public boolean promote(long entryId) {
+        String sql = """
+            UPDATE hall_waitlist w
+            JOIN halls h ON h.id = w.hall_id
+            JOIN users u ON u.id = w.user_id
+            SET w.status = ?, w.active_user_id = NULL, w.closed_at = ?,
+                h.current_occupancy = h.current_occupancy + 1, h.updated_at = ?,
+                u.hall_name = h.hall_name, u.token_version = u.token_version + 1,
+                u.token_version_changed_at = CURRENT_TIMESTAMP(3)
+            WHERE w.id = ? AND w.status = ?
+              AND h.is_active = true AND h.current_occupancy < h.capacity
+              AND (u.hall_name IS NULL OR u.hall_name = '')
+            """;
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        return jdbcTemplate.update(sql, WaitlistStatus.PROMOTED.name(), now, now, entryId,
+                WaitlistStatus.WAITING.name()) > 0;
+    }
+
+    /** Why a promotion did not apply: whether the hall is simply full right now. */
+    public Optional<Boolean> isHallFull(long entryId) {
+        String sql = """
+            SELECT h.current_occupancy >= h.capacity OR h.is_active = false
+            FROM hall_waitlist w JOIN halls h ON h.id = w.hall_id WHERE w.id = ?
+            """;
+        List<Boolean> full = jdbcTemplate.queryForList(sql, Boolean.class, entryId);
+        return full.stream().findFirst();
+    }
+
+    /** Streams all open entries in FIFO order per hall. */
+    public void forEachWaiting(WaitingEntryHandler handler) {
+        String sql = "SELECT id, hall_id, user_id FROM hall_waitlist WHERE status = ? ORDER BY hall_id, id";
+        jdbcTemplate.query(sql, (RowCallbackHandler) rs ->
+            handler.accept(rs.getLong("id"), rs.getLong("hall_id"), rs.getLong("user_id")),
+            WaitlistStatus.WAITING.name());
+    }
+
+    @FunctionalInterface
+    public interface WaitingEntryHandler {
+        void accept(long entryId, long hallId, long userId);
+    }
+}
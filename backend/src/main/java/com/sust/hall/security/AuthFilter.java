@@ -1,5 +1,8 @@
 package com.sust.hall.security;
 
+import com.sust.hall.entity.User;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
 import jakarta.servlet.*;
 import jakarta.servlet.http.*;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -21,6 +24,9 @@ public class AuthFilter extends OncePerRequestFilter {
     @Autowired
     private CustomUserDetailsService userDetailsService;
 
+    @Autowired
+    private TokenRevocationRegistry tokenRevocations;
+
     @Override
     protected void doFilterInternal(HttpServletRequest request,
             HttpServletResponse response,
@@ -28,7 +34,7 @@ public class AuthFilter extends OncePerRequestFilter {
             throws ServletException, IOException {
 
         String path = request.getServletPath();
-        if (path.startsWith("/api/auth")) {
+        if (path.equals("/api/auth/login") || path.equals("/api/auth/register")) {
             filterChain.doFilter(request, response);
             return;
         }
@@ -39,10 +45,10 @@ public class AuthFilter extends OncePerRequestFilter {
 
             String token = header.substring(7);
 
-            if (token != null) {
-                String email = jwtUtil.extractEmail(token);
-                UserDetails userDetails = userDetailsService.loadUserByUsername(email);
-                if (jwtUtil.isValid(token, userDetails)) {
+            Claims claims = verifyQuietly(token);
+            if (claims != null) {
+                UserDetails userDetails = resolvePrincipal(claims);
+                if (userDetails != null && jwtUtil.isValid(claims, userDetails)) {
                     UsernamePasswordAuthenticationToken authenticationToken = new UsernamePasswordAuthenticationToken(
                             userDetails, null, userDetails.getAuthorities());
                     authenticationToken.setDetails(new WebAuthenticationDetailsSource()
@@ -55,5 +61,30 @@ public class AuthFilter extends OncePerRequestFilter {
         }
         filterChain.doFilter(request, response);
     }
-    
+
+    /**
+     * Versioned tokens are trusted as-is unless revoked; older tokens fall back
+     * to the (cached) database lookup. Returns null when the token must not
+     * authenticate the request.
+     */
+    private UserDetails resolvePrincipal(Claims claims) {
+        User tokenUser = jwtUtil.extractUser(claims);
+        if (tokenUser == null || !tokenRevocations.isReady()) {
+            return userDetailsService.loadUserByUsername(claims.getSubject());
+        }
+        if (tokenRevocations.isRevoked(tokenUser.getId(), tokenUser.getTokenVersion())
+                || tokenUser.isSuspended() || tokenUser.isRejected()) {
+            return null;
+        }
+        return new CustomUserDetails(tokenUser);
+    }
+
+    // Invalid or expired tokens leave the request unauthenticated instead of failing it
+    private Claims verifyQuietly(String token) {
+        try {
+            return jwtUtil.verify(token);
+        } catch (JwtException | IllegalArgumentException e) {
+            return null;
+        }
+    }
 }
\ No newline at end of file
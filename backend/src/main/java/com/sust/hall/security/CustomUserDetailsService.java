@@ -7,16 +7,39 @@ import org.springframework.security.core.userdetails.*;
 import org.springframework.stereotype.Service;
 
 @Service
-public class CustomUserDetailsService implements UserDetailsService {
+public class CustomUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
 
     @Autowired
     private UserRepository repo; // your JDBC repository
 
+    @Autowired
+    private UserPrincipalCache principalCache;
+
     @Override
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
+        CustomUserDetails cached = principalCache.get(email);
+        if (cached != null) {
+            return cached;
+        }
+
+        long generation = principalCache.currentGeneration();
         User user = repo.findByEmail(email)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found"));
 
+        CustomUserDetails details = new CustomUserDetails(user);
+        principalCache.putIfCurrent(details, generation);
+        return details;
+    }
+
+    /**
+     * Called by the authentication manager after a successful login when the
+     * stored hash uses an older BCrypt work factor than the configured one.
+     */
+    @Override
+    public UserDetails updatePassword(UserDetails userDetails, String newPassword) {
+        User user = ((CustomUserDetails) userDetails).getUser();
+        repo.updateUserPassword(user.getId(), newPassword);
+        user.setPassword(newPassword);
         return new CustomUserDetails(user);
     }
 }
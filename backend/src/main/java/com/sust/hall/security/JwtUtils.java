@@ -11,7 +11,12 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
+import com.sust.hall.entity.User;
+import com.sust.hall.enums.AccountStatus;
+import com.sust.hall.enums.UserRole;
+
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
 import jakarta.annotation.PostConstruct;
@@ -25,18 +30,39 @@ public class JwtUtils {
       @Value("${jwt.secret}")
     private String jwtSecret;
 
+    @Value("${jwt.cache.max-size:10000}")
+    private int cacheMaxSize;
+
     private SecretKey key;
 
+    // JwtParser is immutable and thread-safe, so one instance serves every request
+    private JwtParser parser;
+
+    private VerifiedTokenCache verifiedTokens;
+
     @PostConstruct
     private void init() {
         byte[] keyBytes = jwtSecret.getBytes(StandardCharsets.UTF_8);
         key = Keys.hmacShaKeyFor(keyBytes);
+        parser = Jwts.parserBuilder()
+                .setSigningKey(key)
+                .build();
+        verifiedTokens = new VerifiedTokenCache(cacheMaxSize);
     }
 
-    public String generateToken(String email, String role) {
+    /**
+     * Issues a token that carries enough of the user for AuthFilter to build the
+     * principal without a database lookup. "ver" is checked against
+     * {@link TokenRevocationRegistry} so suspensions and role changes revoke it.
+     */
+    public String generateToken(User user) {
         return Jwts.builder()
-                .setSubject(email)
-                .claim("role", role)
+                .setSubject(user.getEmail())
+                .claim("role", user.getRole().name())
+                .claim("uid", user.getId())
+                .claim("hall", user.getHallName())
+                .claim("status", user.getAccountStatus().name())
+                .claim("ver", user.getTokenVersion())
                 .setIssuedAt(new Date())
                 .setExpiration(new Date(System.currentTimeMillis() + EXPIRATION))
                 .signWith(key)
@@ -51,25 +77,60 @@ public class JwtUtils {
         return extractClaim(token, claims -> claims.get("role", String.class));
     }
 
+    /**
+     * Rebuilds the user carried by a token issued by {@link #generateToken(User)}.
+     * Returns null for older tokens that lack the version claim.
+     */
+    public User extractUser(Claims claims) {
+        Integer version = claims.get("ver", Integer.class);
+        Long userId = claims.get("uid", Long.class);
+        if (version == null || userId == null) {
+            return null;
+        }
+        User user = new User();
+        user.setId(userId);
+        user.setEmail(claims.getSubject());
+        user.setRole(UserRole.valueOf(claims.get("role", String.class)));
+        user.setHallName(claims.get("hall", String.class));
+        user.setAccountStatus(AccountStatus.valueOf(claims.get("status", String.class)));
+        user.setTokenVersion(version);
+        return user;
+    }
+
     public Date extractExpiration(String token) {
         return extractClaim(token, Claims::getExpiration);
     }
 
+    /**
+     * Verifies the token signature and expiry once and returns its claims.
+     * Tokens seen before are served from the verified-token cache until they expire.
+     * The returned claims are shared between requests and must not be modified.
+     *
+     * @throws io.jsonwebtoken.JwtException if the token is malformed, tampered with or expired
+     */
+    public Claims verify(String token) {
+        Claims claims = verifiedTokens.get(token);
+        if (claims != null) {
+            return claims;
+        }
+        claims = parser.parseClaimsJws(token).getBody();
+        verifiedTokens.put(token, claims);
+        return claims;
+    }
+
     private <T> T extractClaim(String token, Function<Claims, T> resolver) {
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(key)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-        return resolver.apply(claims);
+        return resolver.apply(verify(token));
     }
 
     public boolean isValid(String token, UserDetails userDetails) {
-        final String email = extractEmail(token);
-        return email.equals(userDetails.getUsername()) && !isTokenExpired(token);
+        return isValid(verify(token), userDetails);
+    }
+
+    public boolean isValid(Claims claims, UserDetails userDetails) {
+        return claims.getSubject().equals(userDetails.getUsername()) && !isTokenExpired(claims);
     }
 
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    private boolean isTokenExpired(Claims claims) {
+        return claims.getExpiration().before(new Date());
     }
 }
@@ -0,0 +1,117 @@
+package com.sust.hall.security;
+
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.sust.hall.exeptions.TooManyRequestsException;
+
+/**
+ * In-process token buckets for the login and registration endpoints, keyed by
+ * email and by client IP. Each bucket is a single AtomicLong holding its
+ * "theoretical arrival time" (GCRA), so acquiring a token is one CAS and never
+ * blocks. Buckets that have refilled completely carry no state and are swept.
+ * Once the map is full of live buckets, new keys share one overflow bucket per
+ * limit, so a flood of distinct IPs or emails is still throttled.
+ */
+@Component
+public class LoginRateLimiter {
+
+    // A full map is swept inline at most this often; the scheduled sweep does the rest
+    private static final long MIN_INLINE_SWEEP_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final ConcurrentHashMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+    private final AtomicLong lastSweep = new AtomicLong(System.nanoTime());
+
+    private final Limit emailLimit;
+    private final Limit ipLimit;
+    private final Limit registerLimit;
+    private final int maxBuckets;
+
+    public LoginRateLimiter(
+            @Value("${security.login-rate.email.burst:5}") int emailBurst,
+            @Value("${security.login-rate.email.per-minute:5}") int emailPerMinute,
+            @Value("${security.login-rate.ip.burst:100}") int ipBurst,
+            @Value("${security.login-rate.ip.per-minute:300}") int ipPerMinute,
+            @Value("${security.login-rate.register.burst:20}") int registerBurst,
+            @Value("${security.login-rate.register.per-minute:60}") int registerPerMinute,
+            @Value("${security.login-rate.max-buckets:100000}") int maxBuckets) {
+        this.emailLimit = new Limit(emailBurst, emailPerMinute);
+        this.ipLimit = new Limit(ipBurst, ipPerMinute);
+        this.registerLimit = new Limit(registerBurst, registerPerMinute);
+        this.maxBuckets = maxBuckets;
+    }
+
+    public void checkLogin(String email, String clientIp) {
+        acquire("ip:" + clientIp, ipLimit);
+        if (email != null) {
+            acquire("email:" + email.trim().toLowerCase(Locale.ROOT), emailLimit);
+        }
+    }
+
+    public void checkRegister(String clientIp) {
+        acquire("register:" + clientIp, registerLimit);
+    }
+
+    private void acquire(String key, Limit limit) {
+        long now = System.nanoTime();
+        AtomicLong bucket = buckets.get(key);
+        if (bucket == null) {
+            if (buckets.size() >= maxBuckets) {
+                sweepIfDue(now);
+            }
+            // Still full of live buckets: fail closed through the shared bucket instead of growing
+            bucket = buckets.size() >= maxBuckets ? limit.overflow
+                    : buckets.computeIfAbsent(key, k -> new AtomicLong(now));
+        }
+
+        while (true) {
+            long arrival = bucket.get();
+            long start = Math.max(arrival, now);
+            long excess = start - now - limit.toleranceNanos;
+            if (excess > 0) {
+                long retryAfter = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(excess + 999_999_999L));
+                throw new TooManyRequestsException("Too many attempts, please try again later", retryAfter);
+            }
+            if (bucket.compareAndSet(arrival, start + limit.intervalNanos)) {
+                return;
+            }
+        }
+    }
+
+    // Only fully refilled buckets are removed, so a racing acquire loses nothing that matters
+    @Scheduled(fixedDelayString = "${security.login-rate.sweep-ms:60000}")
+    public void evictIdle() {
+        long now = System.nanoTime();
+        lastSweep.set(now);
+        buckets.values().removeIf(bucket -> bucket.get() - now <= 0);
+    }
+
+    private void sweepIfDue(long now) {
+        long last = lastSweep.get();
+        if (now - last >= MIN_INLINE_SWEEP_NANOS && lastSweep.compareAndSet(last, now)) {
+            evictIdle();
+        }
+    }
+
+    public int bucketCount() {
+        return buckets.size();
+    }
+
+    private static final class Limit {
+        final long intervalNanos;
+        final long toleranceNanos;
+        final AtomicLong overflow;
+
+        Limit(int burst, int perMinute) {
+            this.intervalNanos = TimeUnit.MINUTES.toNanos(1) / Math.max(1, perMinute);
+            this.toleranceNanos = intervalNanos * Math.max(0, burst - 1);
+            this.overflow = new AtomicLong(System.nanoTime());
+        }
+    }
+}
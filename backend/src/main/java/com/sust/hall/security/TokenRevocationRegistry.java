@@ -0,0 +1,98 @@
+package com.sust.hall.security;
+
+import java.time.LocalDateTime;
+import java.util.BitSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * In-memory view of which issued tokens are no longer valid, so AuthFilter can
+ * trust token claims without a database round trip.
+ *
+ * A token is revoked when its "ver" claim is below the user's current token
+ * version, or when the user has been deleted. Versions are only tracked for
+ * users whose version was ever bumped, and deleted users are derived from a
+ * bitmap of ids that existed at the last full load. Between full loads,
+ * versions bumped on other instances are polled by their change time, starting
+ * from {@link #versionsSeenUntil()}.
+ */
+@Component
+public class TokenRevocationRegistry {
+
+    private final ConcurrentHashMap<Long, Integer> currentVersions = new ConcurrentHashMap<>();
+    private final Set<Long> deletedSinceLoad = ConcurrentHashMap.newKeySet();
+
+    private volatile LiveIds liveIds;
+    private volatile LocalDateTime versionsSeenUntil;
+
+    /** Until the first full load the registry cannot vouch for anything. */
+    public boolean isReady() {
+        return liveIds != null;
+    }
+
+    public boolean isRevoked(long userId, int tokenVersion) {
+        if (deletedSinceLoad.contains(userId)) {
+            return true;
+        }
+        LiveIds live = liveIds;
+        if (userId <= live.maxId() && !live.ids().get((int) userId)) {
+            return true;
+        }
+        Integer current = currentVersions.get(userId);
+        return current != null && tokenVersion < current;
+    }
+
+    public void updateVersion(long userId, int version) {
+        currentVersions.merge(userId, version, Math::max);
+    }
+
+    public void updateVersions(Map<Long, Integer> versions) {
+        versions.forEach(this::updateVersion);
+    }
+
+    /** Change time of the latest version bump applied, or null before the first one. */
+    public LocalDateTime versionsSeenUntil() {
+        return versionsSeenUntil;
+    }
+
+    public synchronized void advanceVersionsSeenUntil(LocalDateTime seen) {
+        if (seen != null && (versionsSeenUntil == null || seen.isAfter(versionsSeenUntil))) {
+            versionsSeenUntil = seen;
+        }
+    }
+
+    public void markDeleted(long userId) {
+        deletedSinceLoad.add(userId);
+    }
+
+    /**
+     * Replaces the set of live user ids. Ids above the largest loaded id are
+     * treated as live (users registered since the load) unless marked deleted.
+     * Deletion marks the new bitmap already covers are dropped; marks for ids
+     * that were still present when the ids were read are kept.
+     */
+    public void loadLiveIds(Iterable<Long> ids) {
+        BitSet live = new BitSet();
+        long max = 0;
+        for (Long id : ids) {
+            if (id > Integer.MAX_VALUE) {
+                continue;
+            }
+            live.set(id.intValue());
+            max = Math.max(max, id);
+        }
+        liveIds = new LiveIds(live, max);
+        long loadedMax = max;
+        deletedSinceLoad.removeIf(id -> id <= loadedMax && !live.get(id.intValue()));
+    }
+
+    public int trackedVersionCount() {
+        return currentVersions.size();
+    }
+
+    private record LiveIds(BitSet ids, long maxId) {
+    }
+}
@@ -0,0 +1,155 @@
+package com.sust.hall.security;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Size- and TTL-bounded cache of {@link CustomUserDetails} keyed by email.
+ * UserRepository evicts entries by user id on every write to the users table,
+ * so status and role changes are visible on the very next request.
+ * Expired entries leave both maps together; a full cache only scans for them
+ * once the earliest expiry has passed, and otherwise drops an arbitrary entry.
+ */
+@Component
+public class UserPrincipalCache {
+
+    private final ConcurrentHashMap<String, Entry> byEmail = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, String> emailById = new ConcurrentHashMap<>();
+
+    // Bumped on every eviction so a load that raced with a write is not cached
+    private final AtomicLong generation = new AtomicLong();
+
+    // Lower bound on the expiry of every entry, so a full cache knows when a purge can free anything
+    private final AtomicLong earliestExpiry = new AtomicLong(Long.MAX_VALUE);
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    private final int maxSize;
+    private final long ttlMillis;
+
+    public UserPrincipalCache(@Value("${security.principal-cache.max-size:5000}") int maxSize,
+            @Value("${security.principal-cache.ttl-seconds:300}") long ttlSeconds) {
+        this.maxSize = maxSize;
+        this.ttlMillis = ttlSeconds * 1000;
+    }
+
+    public CustomUserDetails get(String email) {
+        Entry entry = byEmail.get(email);
+        if (entry == null || entry.isExpired(System.currentTimeMillis())) {
+            if (entry != null) {
+                remove(entry);
+            }
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return entry.details;
+    }
+
+    /** Snapshot to pass to {@link #putIfCurrent} once the principal has been loaded. */
+    public long currentGeneration() {
+        return generation.get();
+    }
+
+    public void putIfCurrent(CustomUserDetails details, long loadedAtGeneration) {
+        if (maxSize <= 0) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        if (byEmail.size() >= maxSize) {
+            if (earliestExpiry.get() <= now) {
+                purgeExpired(now);
+            }
+            if (byEmail.size() >= maxSize) {
+                evictOne();
+            }
+        }
+        Long id = details.getUser().getId();
+        byEmail.put(details.getUsername(), new Entry(details, now + ttlMillis));
+        emailById.put(id, details.getUsername());
+        earliestExpiry.accumulateAndGet(now + ttlMillis, Math::min);
+        if (generation.get() != loadedAtGeneration) {
+            evictById(id);
+        }
+    }
+
+    public void evictById(Long id) {
+        if (id == null) {
+            return;
+        }
+        generation.incrementAndGet();
+        String email = emailById.remove(id);
+        if (email != null && byEmail.remove(email) != null) {
+            evictions.increment();
+        }
+    }
+
+    public void evictAllById(Collection<Long> ids) {
+        for (Long id : ids) {
+            evictById(id);
+        }
+    }
+
+    private void purgeExpired(long now) {
+        long earliest = Long.MAX_VALUE;
+        earliestExpiry.set(Long.MAX_VALUE);
+        for (Entry entry : byEmail.values()) {
+            if (entry.isExpired(now)) {
+                remove(entry);
+            } else {
+                earliest = Math.min(earliest, entry.expiresAt());
+            }
+        }
+        earliestExpiry.accumulateAndGet(earliest, Math::min);
+    }
+
+    private void evictOne() {
+        Iterator<Entry> it = byEmail.values().iterator();
+        if (it.hasNext()) {
+            remove(it.next());
+        }
+    }
+
+    private void remove(Entry entry) {
+        String email = entry.details().getUsername();
+        if (byEmail.remove(email, entry)) {
+            emailById.remove(entry.details().getUser().getId(), email);
+        }
+    }
+
+    public void clear() {
+        generation.incrementAndGet();
+        byEmail.clear();
+        emailById.clear();
+    }
+
+    public Map<String, Object> getStats() {
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        long total = hitCount + missCount;
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("size", byEmail.size());
+        stats.put("maxSize", maxSize);
+        stats.put("hits", hitCount);
+        stats.put("misses", missCount);
+        stats.put("evictions", evictions.sum());
+        stats.put("hitRate", total == 0 ? 0.0 : (double) hitCount / total);
+        return stats;
+    }
+
+    private record Entry(CustomUserDetails details, long expiresAt) {
+        boolean isExpired(long now) {
+            return expiresAt <= now;
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.sust.hall.security;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.jsonwebtoken.Claims;
+
+/**
+ * Bounded cache of tokens whose signature has already been checked.
+ * Entries are keyed by a SHA-256 digest of the raw token (so the cache never
+ * holds bearer tokens themselves) and drop out once the token expires.
+ * A full cache only scans for expired entries once the earliest expiry has
+ * passed, and otherwise drops an arbitrary entry to make room.
+ */
+class VerifiedTokenCache {
+
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    });
+
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final int maxSize;
+
+    // Lower bound on the expiry of every entry, so a full cache knows when a purge can free anything
+    private final AtomicLong earliestExpiry = new AtomicLong(Long.MAX_VALUE);
+
+    VerifiedTokenCache(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    Claims get(String token) {
+        String key = digest(token);
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAt <= System.currentTimeMillis()) {
+            entries.remove(key, entry);
+            return null;
+        }
+        return entry.claims;
+    }
+
+    void put(String token, Claims claims) {
+        Date expiration = claims.getExpiration();
+        if (expiration == null || maxSize <= 0) {
+            return;
+        }
+        long expiresAt = expiration.getTime();
+        if (entries.size() >= maxSize) {
+            if (earliestExpiry.get() <= System.currentTimeMillis()) {
+                purgeExpired();
+            }
+            if (entries.size() >= maxSize) {
+                evictOne();
+            }
+        }
+        entries.put(digest(token), new Entry(claims, expiresAt));
+        earliestExpiry.accumulateAndGet(expiresAt, Math::min);
+    }
+
+    void purgeExpired() {
+        long now = System.currentTimeMillis();
+        long[] earliest = { Long.MAX_VALUE };
+        earliestExpiry.set(Long.MAX_VALUE);
+        entries.values().removeIf(entry -> {
+            if (entry.expiresAt <= now) {
+                return true;
+            }
+            earliest[0] = Math.min(earliest[0], entry.expiresAt);
+            return false;
+        });
+        earliestExpiry.accumulateAndGet(earliest[0], Math::min);
+    }
+
+    // Keys are digests, so the first one found is as good as a random pick; it is just verified again
+    private void evictOne() {
+        Iterator<String> it = entries.keySet().iterator();
+        if (it.hasNext()) {
+            it.next();
+            it.remove();
+        }
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    private static String digest(String token) {
+        byte[] hash = SHA_256.get().digest(token.getBytes(StandardCharsets.UTF_8));
+        return Base64.getEncoder().encodeToString(hash);
+    }
+
+    private record Entry(Claims claims, long expiresAt) {
+    }
+}
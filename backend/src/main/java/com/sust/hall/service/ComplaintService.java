@@ -2,6 +2,7 @@ package com.sust.hall.service;
 
 import com.sust.hall.dto.*;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface ComplaintService {
@@ -13,5 +14,7 @@ public interface ComplaintService {
     List<ComplaintResponseDTO> getComplaintsByStatus(String status);
     List<ComplaintResponseDTO> getComplaintsByCategory(String category);
     List<ComplaintResponseDTO> getAllComplaints();
+    CursorPage<ComplaintResponseDTO> getComplaintQueue(String status, String category, String priority,
+            String hallName, LocalDateTime from, LocalDateTime to, String cursor, Integer limit);
     void deleteComplaint(Long id);
 }
\ No newline at end of file
@@ -5,17 +5,30 @@ import com.sust.hall.entity.Complaint;
 import com.sust.hall.entity.ComplaintNote;
 import com.sust.hall.entity.User;
 import com.sust.hall.repository.ComplaintRepository;
+import com.sust.hall.repository.KeysetCursor;
 import com.sust.hall.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
 @Transactional
 public class ComplaintServiceImpl implements ComplaintService {
 
+    private static final Logger logger = LoggerFactory.getLogger(ComplaintServiceImpl.class);
+
+    private static final int NOTE_LOOKUP_BATCH = 1000;
+
     private final ComplaintRepository complaintRepository;
     private final UserRepository userRepository;
 
@@ -80,35 +93,50 @@ public class ComplaintServiceImpl implements ComplaintService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<ComplaintResponseDTO> getUserComplaints(Long userId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found with id: " + userId));
-
-        return complaintRepository.findByUser(user)
-                .stream().map(this::mapToDTO)
-                .collect(Collectors.toList());
+        if (userRepository.findById(userId).isEmpty()) {
+            throw new RuntimeException("User not found with id: " + userId);
+        }
+        return mapWithNotes(complaintRepository.findByUserId(userId));
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<ComplaintResponseDTO> getComplaintsByStatus(String status) {
         Complaint.Status complaintStatus = Complaint.Status.valueOf(status.toUpperCase());
-        return complaintRepository.findByStatus(complaintStatus)
-                .stream().map(this::mapToDTO)
-                .collect(Collectors.toList());
+        return mapWithNotes(complaintRepository.findByStatus(complaintStatus));
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<ComplaintResponseDTO> getComplaintsByCategory(String category) {
-        return complaintRepository.findByCategory(category)
-                .stream().map(this::mapToDTO)
-                .collect(Collectors.toList());
+        return mapWithNotes(complaintRepository.findByCategory(category));
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<ComplaintResponseDTO> getAllComplaints() {
-        return complaintRepository.findAll()
-                .stream().map(this::mapToDTO)
-                .collect(Collectors.toList());
+        return mapWithNotes(complaintRepository.findAll());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<ComplaintResponseDTO> getComplaintQueue(String status, String category, String priority,
+            String hallName, LocalDateTime from, LocalDateTime to, String cursor, Integer limit) {
+        Complaint.Status complaintStatus = status != null ? Complaint.Status.valueOf(status.toUpperCase()) : null;
+        Complaint.Priority complaintPriority = priority != null ? Complaint.Priority.valueOf(priority.toUpperCase()) : null;
+        CursorPage<Complaint> page = complaintRepository.findQueue(complaintStatus, category, complaintPriority,
+                hallName, from, to, cursor, KeysetCursor.clampLimit(limit, 50, 200));
+        return new CursorPage<>(mapWithNotes(page.getItems()), page.getNextCursor(), page.isHasMore());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillPriorityRanks() {
+        int ranked = complaintRepository.backfillPriorityRanks();
+        if (ranked > 0) {
+            logger.info("Set the queue priority rank of {} complaints", ranked);
+        }
     }
 
     @Override
@@ -120,7 +148,30 @@ public class ComplaintServiceImpl implements ComplaintService {
     }
 
     // ---------- Mapping ----------
+
+    // Users arrive with the complaints; notes for the whole page come from IN queries, so a listing
+    // costs a fixed number of queries however many complaints it has
+    private List<ComplaintResponseDTO> mapWithNotes(List<Complaint> complaints) {
+        Map<Long, List<ComplaintNote>> notesByComplaint = new HashMap<>();
+        List<Long> ids = complaints.stream().map(Complaint::getId).collect(Collectors.toList());
+        for (int start = 0; start < ids.size(); start += NOTE_LOOKUP_BATCH) {
+            List<Long> chunk = ids.subList(start, Math.min(start + NOTE_LOOKUP_BATCH, ids.size()));
+            for (ComplaintNote note : complaintRepository.findNotesByComplaintIds(chunk)) {
+                notesByComplaint.computeIfAbsent(note.getComplaint().getId(), id -> new ArrayList<>()).add(note);
+            }
+        }
+        List<ComplaintResponseDTO> dtos = new ArrayList<>(complaints.size());
+        for (Complaint complaint : complaints) {
+            dtos.add(mapToDTO(complaint, notesByComplaint.getOrDefault(complaint.getId(), List.of())));
+        }
+        return dtos;
+    }
+
     private ComplaintResponseDTO mapToDTO(Complaint complaint) {
+        return mapToDTO(complaint, complaint.getNotes());
+    }
+
+    private ComplaintResponseDTO mapToDTO(Complaint complaint, List<ComplaintNote> notes) {
         ComplaintResponseDTO dto = new ComplaintResponseDTO();
         dto.setId(complaint.getId());
         dto.setTitle(complaint.getTitle());
@@ -137,8 +188,8 @@ public class ComplaintServiceImpl implements ComplaintService {
         dto.setResolvedAt(complaint.getResolvedAt());
         
         // Map notes
-        if (complaint.getNotes() != null) {
-            List<ComplaintNoteDTO> noteDTOs = complaint.getNotes().stream()
+        if (notes != null) {
+            List<ComplaintNoteDTO> noteDTOs = notes.stream()
                     .map(this::mapNoteToDTO)
                     .collect(Collectors.toList());
             dto.setNotes(noteDTOs);
@@ -0,0 +1,253 @@
+package com.sust.hall.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.sust.hall.dto.ComplaintExportRow;
+import com.sust.hall.dto.MealDTO;
+import com.sust.hall.dto.UserSummaryDTO;
+import com.sust.hall.entity.Complaint;
+import com.sust.hall.enums.AccountStatus;
+import com.sust.hall.enums.MealType;
+import com.sust.hall.enums.UserRole;
+import com.sust.hall.exeptions.BadRequestException;
+import com.sust.hall.repository.ComplaintRepository;
+import com.sust.hall.repository.MealRepository;
+import com.sust.hall.repository.UserRepository;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Streams users, complaints and meals straight from a forward-only cursor to the
+ * response body as CSV or NDJSON. Rows are written as they are read, so memory
+ * stays flat no matter how many rows match.
+ */
+@Service
+public class ExportService {
+
+    public enum Format {
+        CSV("text/csv"),
+        NDJSON("application/x-ndjson");
+
+        private final String contentType;
+
+        Format(String contentType) {
+            this.contentType = contentType;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getExtension() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+
+        public static Format parse(String value) {
+            if (value == null || value.isBlank()) {
+                return CSV;
+            }
+            try {
+                return Format.valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new BadRequestException("Unsupported export format: " + value);
+            }
+        }
+    }
+
+    private static final List<String> USER_COLUMNS = List.of(
+            "id", "name", "email", "hallName", "role", "accountStatus", "createdAt");
+
+    private static final List<String> COMPLAINT_COLUMNS = List.of(
+            "id", "title", "description", "category", "priority", "status", "userId", "userName",
+            "hallName", "adminResponse", "createdAt", "updatedAt", "resolvedAt");
+
+    private static final List<String> MEAL_COLUMNS = List.of(
+            "id", "hallName", "mealType", "mealName", "description", "price", "quantity",
+            "mealDate", "isAvailable", "createdAt", "updatedAt");
+
+    private final UserRepository userRepository;
+    private final ComplaintRepository complaintRepository;
+    private final MealRepository mealRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ObjectWriter rowWriter;
+
+    public ExportService(UserRepository userRepository, ComplaintRepository complaintRepository,
+            MealRepository mealRepository, PlatformTransactionManager transactionManager,
+            ObjectMapper objectMapper) {
+        this.userRepository = userRepository;
+        this.complaintRepository = complaintRepository;
+        this.mealRepository = mealRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        // Let the output buffer decide when to flush instead of flushing after every row
+        this.rowWriter = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    public StreamingResponseBody exportUsers(Format format, String hallName, UserRole role,
+            AccountStatus status) {
+        return out -> {
+            RowSink<UserSummaryDTO> sink = openSink(format, out, USER_COLUMNS, user -> new Object[] {
+                    user.getId(), user.getName(), user.getEmail(), user.getHallName(),
+                    user.getRole(), user.getAccountStatus(), user.getCreatedAt() });
+            userRepository.streamUserSummaries(hallName, role, status, sink::write);
+            sink.finish();
+        };
+    }
+
+    public StreamingResponseBody exportComplaints(Format format, Complaint.Status status,
+            String category, LocalDateTime from, LocalDateTime to) {
+        return out -> {
+            RowSink<ComplaintExportRow> sink = openSink(format, out, COMPLAINT_COLUMNS, row -> new Object[] {
+                    row.getId(), row.getTitle(), row.getDescription(), row.getCategory(),
+                    row.getPriority(), row.getStatus(), row.getUserId(), row.getUserName(),
+                    row.getHallName(), row.getAdminResponse(), row.getCreatedAt(),
+                    row.getUpdatedAt(), row.getResolvedAt() });
+            // JPA result streams need an open transaction for as long as they are read
+            readOnlyTransaction.executeWithoutResult(tx -> {
+                try (Stream<ComplaintExportRow> rows =
+                        complaintRepository.streamForExport(status, category, from, to)) {
+                    rows.forEach(sink::write);
+                }
+            });
+            sink.finish();
+        };
+    }
+
+    public StreamingResponseBody exportMeals(Format format, String hallName, MealType mealType,
+            LocalDateTime from, LocalDateTime to) {
+        return out -> {
+            RowSink<MealDTO> sink = openSink(format, out, MEAL_COLUMNS, meal -> new Object[] {
+                    meal.getId(), meal.getHallName(), meal.getMealType(), meal.getMealName(),
+                    meal.getDescription(), meal.getPrice(), meal.getQuantity(), meal.getMealDate(),
+                    meal.getIsAvailable(), meal.getCreatedAt(), meal.getUpdatedAt() });
+            readOnlyTransaction.executeWithoutResult(tx -> {
+                try (Stream<MealDTO> rows = mealRepository.streamForExport(hallName, mealType, from, to)) {
+                    rows.forEach(sink::write);
+                }
+            });
+            sink.finish();
+        };
+    }
+
+    private <T> RowSink<T> openSink(Format format, OutputStream out, List<String> columns,
+            Function<T, Object[]> toCells) throws IOException {
+        if (format == Format.NDJSON) {
+            return new NdjsonSink<>(rowWriter, out);
+        }
+        return new CsvSink<>(out, columns, toCells);
+    }
+
+    /** Writes one row at a time; I/O failures surface unchecked so they can cross stream callbacks. */
+    private interface RowSink<T> {
+        void write(T row);
+
+        void finish() throws IOException;
+    }
+
+    private static final class CsvSink<T> implements RowSink<T> {
+        private final Writer writer;
+        private final Function<T, Object[]> toCells;
+
+        CsvSink(OutputStream out, List<String> columns, Function<T, Object[]> toCells) throws IOException {
+            this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 16 * 1024);
+            this.toCells = toCells;
+            writeLine(columns.toArray());
+        }
+
+        @Override
+        public void write(T row) {
+            try {
+                writeLine(toCells.apply(row));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public void finish() throws IOException {
+            writer.flush();
+        }
+
+        private void writeLine(Object[] cells) throws IOException {
+            for (int i = 0; i < cells.length; i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                writeCell(cells[i]);
+            }
+            writer.write("\r\n");
+        }
+
+        private void writeCell(Object value) throws IOException {
+            if (value == null) {
+                return;
+            }
+            String text = value.toString();
+            // Keep spreadsheet apps from evaluating user-supplied text as a formula
+            boolean formula = !text.isEmpty() && "=+-@\t\r".indexOf(text.charAt(0)) >= 0
+                    && !(value instanceof Number);
+            boolean quote = formula || text.indexOf(',') >= 0 || text.indexOf('"') >= 0
+                    || text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0;
+            if (!quote) {
+                writer.write(text);
+                return;
+            }
+            writer.write('"');
+            if (formula) {
+                writer.write('\'');
+            }
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                if (c == '"') {
+                    writer.write('"');
+                }
+                writer.write(c);
+            }
+            writer.write('"');
+        }
+    }
+
+    private static final class NdjsonSink<T> implements RowSink<T> {
+        private final ObjectWriter rowWriter;
+        private final JsonGenerator generator;
+
+        NdjsonSink(ObjectWriter rowWriter, OutputStream out) throws IOException {
+            this.rowWriter = rowWriter;
+            this.generator = rowWriter.getFactory().createGenerator(out);
+            this.generator.setRootValueSeparator(null);
+        }
+
+        @Override
+        public void write(T row) {
+            try {
+                rowWriter.writeValue(generator, row);
+                generator.writeRaw('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public void finish() throws IOException {
+            generator.flush();
+        }
+    }
+}
@@ -0,0 +1,238 @@
+package com.sust.hall.service;
+
+import com.sust.hall.entity.Hall;
+import com.sust.hall.enums.HallType;
+import com.sust.hall.repository.HallRepository;
+import com.sust.hall.repository.HallRepository.HallChangedEvent;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * In-memory copy of the active halls, served from an immutable snapshot that is
+ * replaced wholesale whenever HallRepository writes a hall. Lookups by name, code
+ * and full name are case-insensitive, matching the LOWER(...) queries they replace.
+ *
+ * The snapshot also carries {@link HallTotals}, adjusted by the delta of each
+ * changed row, so the statistics endpoints never aggregate in SQL.
+ *
+ * Halls handed out are shared with the snapshot and must be treated as read-only;
+ * code that modifies a hall should load it through HallRepository instead.
+ */
+@Component
+public class HallRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(HallRegistry.class);
+
+    private final HallRepository hallRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>();
+
+    public HallRegistry(HallRepository hallRepository, ApplicationEventPublisher eventPublisher) {
+        this.hallRepository = hallRepository;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /** Published when a committed write leaves a hall with a different occupancy or capacity. */
+    public record OccupancyChangedEvent(Long hallId, int occupancy, int capacity, LocalDateTime changedAt) {
+    }
+
+    public List<Hall> findAll() {
+        return current().halls;
+    }
+
+    public Optional<Hall> findById(Long id) {
+        return id == null ? Optional.empty() : Optional.ofNullable(current().byId.get(id));
+    }
+
+    public Optional<Hall> findByHallName(String hallName) {
+        return Optional.ofNullable(current().byName.get(key(hallName)));
+    }
+
+    public Optional<Hall> findByHallCode(String hallCode) {
+        return Optional.ofNullable(current().byCode.get(key(hallCode)));
+    }
+
+    public Optional<Hall> findByFullName(String fullName) {
+        return Optional.ofNullable(current().byFullName.get(key(fullName)));
+    }
+
+    public List<Hall> findByType(HallType type) {
+        return current().byType.getOrDefault(type, List.of());
+    }
+
+    public List<String> findAllHallNames() {
+        return current().halls.stream().map(Hall::getHallName).toList();
+    }
+
+    public HallTotals getTotals() {
+        return current().totals;
+    }
+
+    public boolean existsById(Long id) {
+        return findById(id).isPresent();
+    }
+
+    public boolean existsByHallName(String hallName) {
+        return findByHallName(hallName).isPresent();
+    }
+
+    // Load up front so changes are tracked (and published) from the first write on
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        try {
+            current();
+        } catch (RuntimeException e) {
+            logger.warn("Could not load halls at startup, will retry on first use", e);
+        }
+    }
+
+    // Runs after the writing transaction commits, or straight away when there is none
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onHallChanged(HallChangedEvent event) {
+        refresh(event.hallId());
+    }
+
+    /**
+     * Rebuilds the snapshot from the table and checks the incrementally maintained
+     * totals against it. Also picks up writes made outside this instance (other
+     * nodes, manual SQL).
+     */
+    @Scheduled(fixedDelayString = "${hall.registry.reconcile-ms:60000}",
+            initialDelayString = "${hall.registry.reconcile-ms:60000}")
+    public void reconcile() {
+        List<OccupancyChangedEvent> changes = new ArrayList<>();
+        try {
+            synchronized (this) {
+                Snapshot previous = snapshot.get();
+                reload();
+                Snapshot reloaded = snapshot.get();
+                if (previous != null && !previous.totals.sameAs(reloaded.totals)) {
+                    logger.warn("Hall totals drifted from the database: was {}, now {}", previous.totals, reloaded.totals);
+                }
+                if (previous != null) {
+                    for (Hall hall : reloaded.halls) {
+                        occupancyChange(previous.byId.get(hall.getId()), hall).ifPresent(changes::add);
+                    }
+                }
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Hall registry reconcile failed, keeping previous snapshot", e);
+        }
+        changes.forEach(eventPublisher::publishEvent);
+    }
+
+    public synchronized void reload() {
+        List<Hall> halls = hallRepository.findAllActiveHalls();
+        snapshot.set(new Snapshot(halls, HallTotals.of(halls)));
+    }
+
+    /**
+     * Re-reads one hall, for writers that change the halls table without going through HallRepository.
+     * The change event is published after the monitor is released, so listeners that write never hold it.
+     */
+    public void refresh(Long hallId) {
+        Optional<OccupancyChangedEvent> change;
+        synchronized (this) {
+            Snapshot previous = snapshot.get();
+            if (previous == null) {
+                return; // nothing loaded yet, the first read will see the change
+            }
+            Hall removed = previous.byId.get(hallId);
+            Hall added = hallRepository.findByIdIncludingInactive(hallId)
+                    .filter(hall -> Boolean.TRUE.equals(hall.getIsActive()))
+                    .orElse(null);
+
+            List<Hall> halls = new ArrayList<>(previous.halls.size() + 1);
+            for (Hall hall : previous.halls) {
+                if (!hall.getId().equals(hallId)) {
+                    halls.add(hall);
+                }
+            }
+            if (added != null) {
+                halls.add(added);
+            }
+            snapshot.set(new Snapshot(halls, previous.totals.replace(removed, added)));
+            change = occupancyChange(removed, added);
+        }
+        change.ifPresent(eventPublisher::publishEvent);
+    }
+
+    private static Optional<OccupancyChangedEvent> occupancyChange(Hall before, Hall after) {
+        if (after == null) {
+            return Optional.empty();
+        }
+        int occupancy = after.getCurrentOccupancy() == null ? 0 : after.getCurrentOccupancy();
+        int capacity = after.getCapacity() == null ? 0 : after.getCapacity();
+        if (before != null && Objects.equals(before.getCurrentOccupancy(), after.getCurrentOccupancy())
+                && Objects.equals(before.getCapacity(), after.getCapacity())) {
+            return Optional.empty();
+        }
+        return Optional.of(new OccupancyChangedEvent(after.getId(), occupancy, capacity, LocalDateTime.now()));
+    }
+
+    private Snapshot current() {
+        Snapshot current = snapshot.get();
+        if (current == null) {
+            synchronized (this) {
+                current = snapshot.get();
+                if (current == null) {
+                    reload();
+                    current = snapshot.get();
+                }
+            }
+        }
+        return current;
+    }
+
+    private static String key(String value) {
+        return value == null ? null : value.toLowerCase(Locale.ROOT);
+    }
+
+    private static final class Snapshot {
+        final List<Hall> halls;
+        final HallTotals totals;
+        final Map<Long, Hall> byId = new HashMap<>();
+        final Map<String, Hall> byName = new HashMap<>();
+        final Map<String, Hall> byCode = new HashMap<>();
+        final Map<String, Hall> byFullName = new HashMap<>();
+        final Map<HallType, List<Hall>> byType = new EnumMap<>(HallType.class);
+
+        Snapshot(Collection<Hall> source, HallTotals totals) {
+            this.totals = totals;
+            List<Hall> sorted = new ArrayList<>(source);
+            sorted.sort(Comparator.comparing(Hall::getHallName, String.CASE_INSENSITIVE_ORDER));
+            this.halls = Collections.unmodifiableList(sorted);
+            for (Hall hall : sorted) {
+                byId.put(hall.getId(), hall);
+                byName.putIfAbsent(key(hall.getHallName()), hall);
+                byCode.putIfAbsent(key(hall.getHallCode()), hall);
+                if (hall.getFullName() != null) {
+                    byFullName.putIfAbsent(key(hall.getFullName()), hall);
+                }
+                byType.computeIfAbsent(hall.getType(), type -> new ArrayList<>()).add(hall);
+            }
+            byType.replaceAll((type, list) -> Collections.unmodifiableList(list));
+        }
+    }
+}
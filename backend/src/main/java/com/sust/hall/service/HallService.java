@@ -1,49 +1,61 @@
 package com.sust.hall.service;
 
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import com.sust.hall.dto.OccupancyChangeDTO;
+import com.sust.hall.dto.OccupancyPointDTO;
 import com.sust.hall.entity.Hall;
 import com.sust.hall.enums.HallType;
+import com.sust.hall.enums.OccupancyResolution;
 import com.sust.hall.repository.HallRepository;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.TreeMap;
 
 @Service
 public class HallService {
 
     private final HallRepository hallRepository;
+    private final HallRegistry hallRegistry;
+    private final OccupancyHistoryRecorder occupancyHistory;
 
-    public HallService(HallRepository hallRepository) {
+    public HallService(HallRepository hallRepository, HallRegistry hallRegistry,
+            OccupancyHistoryRecorder occupancyHistory) {
         this.hallRepository = hallRepository;
+        this.hallRegistry = hallRegistry;
+        this.occupancyHistory = occupancyHistory;
     }
 
     public List<Hall> getAllHalls() {
-        return hallRepository.findAll();
+        return hallRegistry.findAll();
     }
 
     public List<Hall> getActiveHalls() {
-        return hallRepository.findAllActiveHalls();
+        return hallRegistry.findAll();
     }
 
     public Optional<Hall> getHallById(Long id) {
-        return hallRepository.findById(id);
+        return hallRegistry.findById(id);
     }
 
     public Optional<Hall> getHallByCode(String hallCode) {
-        return hallRepository.findByHallCode(hallCode);
+        return hallRegistry.findByHallCode(hallCode);
     }
 
     public List<Hall> getHallsByType(HallType type) {
-        return hallRepository.findByType(type);
+        return hallRegistry.findByType(type);
     }
 
     public List<Hall> getMaleHalls() {
-        return hallRepository.findMaleHalls();
+        return hallRegistry.findByType(HallType.MALE);
     }
 
     public List<Hall> getFemaleHalls() {
-        return hallRepository.findFemaleHalls();
+        return hallRegistry.findByType(HallType.FEMALE);
     }
 
    public Hall createHall(Hall hall) {
@@ -138,8 +150,7 @@ public class HallService {
     }
 
     public void deleteHall(Long id) {
-        Optional<Hall> optionalHall = hallRepository.findById(id);
-        if (optionalHall.isEmpty()) {
+        if (!hallRegistry.existsById(id)) {
             throw new RuntimeException("Hall not found with id: " + id);
         }
         
@@ -148,45 +159,105 @@ public class HallService {
     }
 
     public Hall updateOccupancy(Long id, int occupancy) {
-        Optional<Hall> optionalHall = hallRepository.findById(id);
-        if (optionalHall.isEmpty()) {
-            throw new RuntimeException("Hall not found with id: " + id);
+        if (occupancy < 0) {
+            throw new RuntimeException("Occupancy cannot be negative");
         }
 
-        Hall hall = optionalHall.get();
-        
-        // Validate occupancy doesn't exceed capacity
-        if (occupancy > hall.getCapacity()) {
+        // Capacity is checked by the UPDATE itself, so concurrent writers cannot overshoot it
+        if (hallRepository.updateOccupancyWithinCapacity(id, occupancy) == 0) {
+            Hall hall = hallRegistry.findById(id)
+                    .orElseThrow(() -> new RuntimeException("Hall not found with id: " + id));
             throw new RuntimeException("Occupancy cannot exceed capacity. Capacity: " + hall.getCapacity() + ", Requested occupancy: " + occupancy);
         }
 
-        if (occupancy < 0) {
-            throw new RuntimeException("Occupancy cannot be negative");
+        // Return updated hall; the registry has already swapped in the new row
+        return hallRegistry.findById(id)
+                .orElseThrow(() -> new RuntimeException("Failed to retrieve updated hall"));
+    }
+
+    public Hall checkIn(Long id, int count) {
+        if (count <= 0) {
+            throw new RuntimeException("Check-in count must be greater than 0");
         }
+        return adjustOccupancy(id, count);
+    }
 
-        hallRepository.updateOccupancy(id, occupancy);
-        
-        // Return updated hall
-        return hallRepository.findById(id)
+    public Hall checkOut(Long id, int count) {
+        if (count <= 0) {
+            throw new RuntimeException("Check-out count must be greater than 0");
+        }
+        return adjustOccupancy(id, -count);
+    }
+
+    private Hall adjustOccupancy(Long id, int delta) {
+        OptionalInt occupancy = hallRepository.adjustOccupancy(id, delta);
+        if (occupancy.isEmpty()) {
+            throw occupancyRejected(id, delta);
+        }
+        return hallRegistry.findById(id)
                 .orElseThrow(() -> new RuntimeException("Failed to retrieve updated hall"));
     }
 
+    /**
+     * Applies all changes or none of them, e.g. to move a cohort from one hall to
+     * another. Returns the resulting occupancy per hall.
+     */
+    @Transactional
+    public Map<Long, Integer> applyOccupancyChanges(List<OccupancyChangeDTO> changes) {
+        if (changes == null || changes.isEmpty()) {
+            throw new RuntimeException("At least one occupancy change is required");
+        }
+        Map<Long, Integer> deltas = new TreeMap<>();
+        for (OccupancyChangeDTO change : changes) {
+            if (change.getHallId() == null) {
+                throw new RuntimeException("Hall id is required for every occupancy change");
+            }
+            deltas.merge(change.getHallId(), change.getDelta(), Math::addExact);
+        }
+
+        List<Long> rejected = hallRepository.adjustOccupancies(deltas);
+        if (!rejected.isEmpty()) {
+            // Throwing rolls back the changes that did apply
+            Long hallId = rejected.get(0);
+            throw occupancyRejected(hallId, deltas.get(hallId));
+        }
+        return hallRepository.findOccupancies(deltas.keySet());
+    }
+
+    private RuntimeException occupancyRejected(Long id, int delta) {
+        Optional<Hall> hall = hallRegistry.findById(id);
+        if (hall.isEmpty()) {
+            return new RuntimeException("Hall not found with id: " + id);
+        }
+        return new RuntimeException("Occupancy change of " + delta + " would leave hall " + id
+                + " outside 0.." + hall.get().getCapacity());
+    }
+
+    public List<OccupancyPointDTO> getOccupancyHistory(Long id, LocalDateTime from, LocalDateTime to,
+            OccupancyResolution resolution) {
+        LocalDateTime end = to != null ? to : LocalDateTime.now();
+        LocalDateTime start = from != null ? from : end.minusDays(7);
+        if (!start.isBefore(end)) {
+            throw new RuntimeException("'from' must be before 'to'");
+        }
+        return occupancyHistory.getHistory(id, start, end, resolution);
+    }
+
     public int getTotalCapacity() {
-        return hallRepository.getTotalCapacity();
+        return hallRegistry.getTotals().getTotalCapacity();
     }
 
     public int getTotalOccupancy() {
-        return hallRepository.getTotalOccupancy();
+        return hallRegistry.getTotals().getTotalOccupancy();
     }
 
     public int getAvailableSeats() {
-        int totalCapacity = getTotalCapacity();
-        int totalOccupancy = getTotalOccupancy();
-        return totalCapacity - totalOccupancy;
+        // Both figures from one snapshot so they are always consistent with each other
+        return hallRegistry.getTotals().getAvailableSeats();
     }
 
     public List<Object[]> getHallStatistics() {
-        return hallRepository.getHallStatistics();
+        return hallRegistry.getTotals().toStatisticsRows();
     }
   
     public Hall addHall(Hall hall) {
@@ -194,10 +265,10 @@ public class HallService {
     }
 
     public Optional<Hall> getHallByName(String hallName) {
-    return hallRepository.findByHallName(hallName);
+    return hallRegistry.findByHallName(hallName);
 }
 
 public Optional<Hall> getHallByFullName(String fullName) {
-    return hallRepository.findByFullName(fullName);
+    return hallRegistry.findByFullName(fullName);
 }
 }
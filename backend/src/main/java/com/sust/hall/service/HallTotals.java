@@ -0,0 +1,107 @@
+package com.sust.hall.service;
+
+import com.sust.hall.entity.Hall;
+import com.sust.hall.enums.HallType;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Immutable hall count, capacity and occupancy totals per hall type. HallRegistry
+ * derives each new value from the previous one by subtracting the old row and
+ * adding the new one, so a hall write costs O(1) instead of a GROUP BY.
+ */
+public final class HallTotals {
+
+    private static final HallType[] TYPES = HallType.values();
+
+    private final int[] hallCount;
+    private final long[] capacity;
+    private final long[] occupancy;
+
+    private HallTotals(int[] hallCount, long[] capacity, long[] occupancy) {
+        this.hallCount = hallCount;
+        this.capacity = capacity;
+        this.occupancy = occupancy;
+    }
+
+    public static HallTotals of(Collection<Hall> halls) {
+        HallTotals totals = new HallTotals(new int[TYPES.length], new long[TYPES.length], new long[TYPES.length]);
+        for (Hall hall : halls) {
+            totals.add(hall, 1);
+        }
+        return totals;
+    }
+
+    /** Totals after replacing {@code removed} with {@code added}; either may be null. */
+    public HallTotals replace(Hall removed, Hall added) {
+        HallTotals next = new HallTotals(hallCount.clone(), capacity.clone(), occupancy.clone());
+        if (removed != null) {
+            next.add(removed, -1);
+        }
+        if (added != null) {
+            next.add(added, 1);
+        }
+        return next;
+    }
+
+    private void add(Hall hall, int sign) {
+        if (hall.getType() == null) {
+            return;
+        }
+        int i = hall.getType().ordinal();
+        hallCount[i] += sign;
+        capacity[i] += sign * (long) valueOf(hall.getCapacity());
+        occupancy[i] += sign * (long) valueOf(hall.getCurrentOccupancy());
+    }
+
+    public int getTotalCapacity() {
+        return (int) Arrays.stream(capacity).sum();
+    }
+
+    public int getTotalOccupancy() {
+        return (int) Arrays.stream(occupancy).sum();
+    }
+
+    public int getAvailableSeats() {
+        return getTotalCapacity() - getTotalOccupancy();
+    }
+
+    public int getCapacity(HallType type) {
+        return (int) capacity[type.ordinal()];
+    }
+
+    public int getOccupancy(HallType type) {
+        return (int) occupancy[type.ordinal()];
+    }
+
+    /** Same rows as HallRepository.getHallStatistics: type, hall_count, total_capacity, total_occupancy. */
+    public List<Object[]> toStatisticsRows() {
+        List<Object[]> rows = new ArrayList<>();
+        for (HallType type : TYPES) {
+            int i = type.ordinal();
+            if (hallCount[i] > 0) {
+                rows.add(new Object[] { type.name(), hallCount[i], (int) capacity[i], (int) occupancy[i] });
+            }
+        }
+        return rows;
+    }
+
+    public boolean sameAs(HallTotals other) {
+        return Arrays.equals(hallCount, other.hallCount)
+                && Arrays.equals(capacity, other.capacity)
+                && Arrays.equals(occupancy, other.occupancy);
+    }
+
+    @Override
+    public String toString() {
+        return "HallTotals{halls=" + Arrays.toString(hallCount) + ", capacity=" + Arrays.toString(capacity)
+                + ", occupancy=" + Arrays.toString(occupancy) + "}";
+    }
+
+    private static int valueOf(Integer value) {
+        return value == null ? 0 : value;
+    }
+}
@@ -0,0 +1,96 @@
+package com.sust.hall.service;
+
+import com.sust.hall.dto.MealDTO;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
+
+/**
+ * Per-hall, per-day menu cache. Each key holds a future, so when a day's menu is
+ * missing (for example right after midnight) only the first caller queries the
+ * database and everyone else waits for that result, or gets its failure. Writers
+ * evict the exact (hall, day) keys they touched once their transaction commits.
+ */
+@Component
+public class MealMenuCache {
+
+    private final ConcurrentHashMap<MenuKey, CompletableFuture<List<MealDTO>>> menus = new ConcurrentHashMap<>();
+
+    public List<MealDTO> get(Long hallId, LocalDate day, Supplier<List<MealDTO>> loader) {
+        MenuKey key = new MenuKey(hallId, day);
+        CompletableFuture<List<MealDTO>> mine = new CompletableFuture<>();
+        CompletableFuture<List<MealDTO>> existing = menus.putIfAbsent(key, mine);
+        if (existing == null) {
+            dropDaysBefore(day);
+            try {
+                mine.complete(List.copyOf(loader.get()));
+            } catch (RuntimeException e) {
+                menus.remove(key, mine);
+                mine.completeExceptionally(e);
+                throw e;
+            }
+            return mine.join();
+        }
+        try {
+            return existing.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the menu of hall " + hallId, e);
+        } catch (ExecutionException e) {
+            // Share the loader's failure instead of every waiter hitting the database again;
+            // the failed future is already gone, so the next request retries once
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Could not load the menu of hall " + hallId, e.getCause());
+        }
+    }
+
+    /** Evicts after the current transaction commits, or immediately when there is none. */
+    public void evictAfterCommit(Long hallId, LocalDateTime mealDate) {
+        if (hallId == null || mealDate == null) {
+            return;
+        }
+        MenuKey key = new MenuKey(hallId, mealDate.toLocalDate());
+        afterCommit(() -> menus.remove(key));
+    }
+
+    /** For set-based writes that touch more days than are worth listing. */
+    public void clearAfterCommit() {
+        afterCommit(menus::clear);
+    }
+
+    public void clear() {
+        menus.clear();
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    // Past days are never asked for again; drop them when the first load of a new day happens
+    private void dropDaysBefore(LocalDate day) {
+        menus.keySet().removeIf(key -> key.day().isBefore(day));
+    }
+
+    private record MenuKey(Long hallId, LocalDate day) {
+    }
+}
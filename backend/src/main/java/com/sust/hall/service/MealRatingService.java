@@ -0,0 +1,152 @@
+package com.sust.hall.service;
+
+import com.sust.hall.dto.DishRatingDTO;
+import com.sust.hall.dto.MealRatingDTO;
+import com.sust.hall.entity.Hall;
+import com.sust.hall.entity.User;
+import com.sust.hall.enums.AccountStatus;
+import com.sust.hall.enums.UserRole;
+import com.sust.hall.exeptions.BadRequestException;
+import com.sust.hall.exeptions.NotFoundException;
+import com.sust.hall.repository.MealRatingRepository;
+import com.sust.hall.repository.UserRepository;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * One rating per student and meal, stored in meal_ratings. meals.rating_sum and
+ * rating_count hold the aggregate so menu reads get the average from the meal
+ * row itself. A vote only marks its meal dirty; a scheduled flush rewrites the
+ * aggregates of the dirty meals from meal_ratings, so a flush that runs twice,
+ * or on several instances, always lands on the committed ratings.
+ *
+ * Marks still in memory when the process dies are recovered on the next start,
+ * which rebuilds any drifted aggregates from meal_ratings before serving.
+ */
+@Service
+@DependsOn("entityManagerFactory")
+public class MealRatingService {
+
+    private static final Logger logger = LoggerFactory.getLogger(MealRatingService.class);
+
+    private static final int MIN_SCORE = 1;
+    private static final int MAX_SCORE = 5;
+
+    private final MealRatingRepository ratingRepository;
+    private final UserRepository userRepository;
+    private final HallRegistry hallRegistry;
+    private final MealMenuCache menuCache;
+    private final TransactionTemplate newTransaction;
+
+    // Meals rated since the previous flush
+    private final Set<Long> dirty = ConcurrentHashMap.newKeySet();
+
+    public MealRatingService(MealRatingRepository ratingRepository, UserRepository userRepository,
+            HallRegistry hallRegistry, MealMenuCache menuCache, PlatformTransactionManager transactionManager) {
+        this.ratingRepository = ratingRepository;
+        this.userRepository = userRepository;
+        this.hallRegistry = hallRegistry;
+        this.menuCache = menuCache;
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    // Same rewrite as the flush, for every meal, so it is safe while other instances take votes
+    @PostConstruct
+    public void reconcile() {
+        try {
+            int fixed = ratingRepository.reconcileAggregates();
+            if (fixed > 0) {
+                logger.info("Rebuilt rating aggregates of {} meals from meal_ratings", fixed);
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Could not reconcile meal rating aggregates", e);
+        }
+    }
+
+    public MealRatingDTO rate(Long mealId, Long userId, int score) {
+        if (score < MIN_SCORE || score > MAX_SCORE) {
+            throw new BadRequestException("Score must be between " + MIN_SCORE + " and " + MAX_SCORE);
+        }
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new NotFoundException("User not found with id: " + userId));
+        if (user.getRole() != UserRole.STUDENT || user.getAccountStatus() != AccountStatus.APPROVED) {
+            throw new BadRequestException("Only approved students can rate meals");
+        }
+        boolean inserted;
+        try {
+            inserted = ratingRepository.insert(mealId, userId, score);
+        } catch (DuplicateKeyException e) {
+            throw new BadRequestException("Student has already rated this meal");
+        }
+        if (!inserted) {
+            throw new NotFoundException("Meal not found with id: " + mealId);
+        }
+        // The rating is committed before the mark, so the flush that takes the mark reads it
+        dirty.add(mealId);
+        return new MealRatingDTO(mealId, userId, score);
+    }
+
+    public List<DishRatingDTO> getDishRatings(String hallName) {
+        Long hallId = null;
+        if (hallName != null && !hallName.isBlank()) {
+            hallId = hallRegistry.findByHallName(hallName)
+                    .orElseThrow(() -> new NotFoundException("Hall not found with name: " + hallName))
+                    .getId();
+        }
+        List<DishRatingDTO> dishes = ratingRepository.findDishRatings(hallId);
+        for (DishRatingDTO dish : dishes) {
+            dish.setHallName(hallRegistry.findById(dish.getHallId()).map(Hall::getHallName).orElse(null));
+        }
+        return dishes;
+    }
+
+    /** Deletes the meal's ratings in the caller's transaction. */
+    public void onMealDeleted(Long mealId) {
+        ratingRepository.deleteByMealId(mealId);
+    }
+
+    @Scheduled(fixedDelayString = "${meal.ratings.flush-ms:2000}")
+    public void flush() {
+        List<Long> mealIds = new ArrayList<>();
+        for (Long mealId : dirty) {
+            if (dirty.remove(mealId)) {
+                mealIds.add(mealId);
+            }
+        }
+        if (mealIds.isEmpty()) {
+            return;
+        }
+        try {
+            newTransaction.executeWithoutResult(tx -> {
+                ratingRepository.recomputeAggregates(mealIds);
+                // Cached menus carry the average, so drop the days these meals are served on
+                ratingRepository.forEachMealSlot(mealIds, menuCache::evictAfterCommit);
+            });
+        } catch (RuntimeException e) {
+            logger.warn("Failed to flush ratings of {} meals, retrying on the next flush", mealIds.size(), e);
+            dirty.addAll(mealIds);
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+}
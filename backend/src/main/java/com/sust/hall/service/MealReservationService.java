@@ -0,0 +1,385 @@
+package com.sust.hall.service;
+
+import com.sust.hall.dto.MealReservationDTO;
+import com.sust.hall.entity.User;
+import com.sust.hall.enums.AccountStatus;
+import com.sust.hall.enums.UserRole;
+import com.sust.hall.exeptions.BadRequestException;
+import com.sust.hall.exeptions.NotFoundException;
+import com.sust.hall.exeptions.ServiceUnavailableException;
+import com.sust.hall.repository.MealReservationRepository;
+import com.sust.hall.repository.MealReservationRepository.MealStockRow;
+import com.sust.hall.repository.MealReservationRepository.ReservationWrite;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Students claim and cancel portions of a meal. Remaining portions live in a
+ * striped in-memory {@link PortionCounter} per meal, loaded once from
+ * meals.quantity minus the open rows in meal_reservations, so the lunch rush
+ * never locks the meals row.
+ *
+ * Claims and cancellations go through a write-behind log: a single writer
+ * thread drains the queue and persists everything waiting as one batch in one
+ * transaction. Callers wait for their batch to commit before they get an answer,
+ * so nothing acknowledged can be lost and the counts rebuilt after a restart
+ * are exact. The same writer flips meals.sold_out when a meal sells out or gets
+ * a portion back; meals.is_available is the admin's switch and is left alone.
+ */
+@Service
+public class MealReservationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(MealReservationService.class);
+
+    private static final long IDLE_POLL_MS = 100;
+
+    private final MealReservationRepository reservationRepository;
+    private final MealMenuCache menuCache;
+    private final TransactionTemplate newTransaction;
+    private final BlockingQueue<WriteOp> pending;
+    private final int batchSize;
+
+    private final ConcurrentHashMap<Long, MealStock> stocks = new ConcurrentHashMap<>();
+    // Meals whose counter changed since the writer last compared it with sold_out
+    private final Set<Long> dirty = ConcurrentHashMap.newKeySet();
+
+    private volatile boolean running;
+    private Thread writer;
+
+    public MealReservationService(MealReservationRepository reservationRepository, MealMenuCache menuCache, PlatformTransactionManager transactionManager,
+            @Value("${meal.reservations.queue-capacity:20000}") int queueCapacity,
+            @Value("${meal.reservations.batch-size:500}") int batchSize) {
+        this.reservationRepository = reservationRepository;
+        this.menuCache = menuCache;
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.pending = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        writer = new Thread(this::runWriter, "meal-reservation-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        // The writer keeps going until the queue is empty
+        running = false;
+        writer.join(TimeUnit.SECONDS.toMillis(30));
+    }
+
+    /**
+     * Claims a portion for {@code userId}, who must be the authenticated
+     * {@code principal}. Role and status come from the principal, whose token is
+     * revoked whenever either changes, so a claim never reads the users table.
+     */
+    public MealReservationDTO reserve(Long mealId, Long userId, User principal) {
+        if (principal == null || !userId.equals(principal.getId())) {
+            throw new BadRequestException("Students can only reserve meals for themselves");
+        }
+        if (principal.getRole() != UserRole.STUDENT || principal.getAccountStatus() != AccountStatus.APPROVED) {
+            throw new BadRequestException("Only approved students can reserve meals");
+        }
+        MealStock stock = stockFor(mealId);
+        if (!stock.open) {
+            throw new BadRequestException("Meal is not available");
+        }
+        if (stock.holders.putIfAbsent(userId, Holding.CLAIMING) != null) {
+            throw new BadRequestException("Student has already reserved this meal");
+        }
+        if (!stock.portions.tryTake()) {
+            stock.holders.remove(userId, Holding.CLAIMING);
+            dirty.add(mealId);
+            throw new BadRequestException("Meal is sold out");
+        }
+        dirty.add(mealId);
+        try {
+            write(Kind.CLAIM, mealId, userId);
+        } catch (RuntimeException e) {
+            stock.portions.release();
+            stock.holders.remove(userId, Holding.CLAIMING);
+            dirty.add(mealId);
+            throw e;
+        }
+        stock.holders.replace(userId, Holding.CLAIMING, Holding.RESERVED);
+        return new MealReservationDTO(mealId, userId, stock.portions.sum());
+    }
+
+    public void cancel(Long mealId, Long userId) {
+        MealStock stock = stockFor(mealId);
+        if (!stock.holders.replace(userId, Holding.RESERVED, Holding.CANCELLING)) {
+            throw new NotFoundException("Student has no reservation for meal " + mealId);
+        }
+        try {
+            write(Kind.CANCEL, mealId, userId);
+        } catch (RuntimeException e) {
+            stock.holders.replace(userId, Holding.CANCELLING, Holding.RESERVED);
+            throw e;
+        }
+        stock.holders.remove(userId, Holding.CANCELLING);
+        stock.portions.release();
+        dirty.add(mealId);
+    }
+
+    public long getRemaining(Long mealId) {
+        return stockFor(mealId).portions.sum();
+    }
+
+    /**
+     * Carries an admin edit of quantity or availability over to a loaded counter
+     * once it commits. The committed row is read again and only the difference to
+     * the quantity the counter already reflects is applied, so a counter loaded
+     * after the commit, or edits whose callbacks run out of order, are not
+     * adjusted twice.
+     */
+    public void onMealUpdated(Long mealId) {
+        afterCommit(() -> {
+            MealStock stock = stocks.get(mealId);
+            if (stock == null) {
+                return;
+            }
+            MealStockRow row = reservationRepository.findStock(mealId).orElse(null);
+            if (row == null) {
+                return;
+            }
+            synchronized (stock) {
+                stock.portions.adjust(row.quantity() - stock.quantity);
+                stock.quantity = row.quantity();
+                stock.open = row.available();
+            }
+            dirty.add(mealId);
+        });
+    }
+
+    /** Deletes the meal's reservations in the caller's transaction and forgets its counter after commit. */
+    public void onMealDeleted(Long mealId) {
+        reservationRepository.deleteByMealId(mealId);
+        afterCommit(() -> {
+            stocks.remove(mealId);
+            dirty.remove(mealId);
+        });
+    }
+
+    private MealStock stockFor(Long mealId) {
+        MealStock stock = stocks.computeIfAbsent(mealId, this::loadStock);
+        if (stock == null) {
+            throw new NotFoundException("Meal not found with id: " + mealId);
+        }
+        return stock;
+    }
+
+    private MealStock loadStock(Long mealId) {
+        MealStockRow row = reservationRepository.findStock(mealId).orElse(null);
+        if (row == null) {
+            return null;
+        }
+        List<Long> reserved = reservationRepository.findReservedUserIds(mealId);
+        int remaining = Math.max(0, row.quantity() - reserved.size());
+        MealStock stock = new MealStock(row.hallId(), row.mealDate(), new PortionCounter(remaining));
+        stock.quantity = row.quantity();
+        reserved.forEach(userId -> stock.holders.put(userId, Holding.RESERVED));
+        stock.open = row.available();
+        stock.persistedSoldOut = row.soldOut();
+        return stock;
+    }
+
+    private void write(Kind kind, Long mealId, Long userId) {
+        if (!running) {
+            throw new ServiceUnavailableException("Reservations are shutting down, please retry shortly");
+        }
+        WriteOp op = new WriteOp(kind, new ReservationWrite(mealId, userId, LocalDateTime.now()),
+                new CompletableFuture<>());
+        if (!pending.offer(op)) {
+            throw new ServiceUnavailableException("Too many reservations in flight, please retry shortly");
+        }
+        try {
+            op.done().join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw e;
+        }
+    }
+
+    private void runWriter() {
+        List<WriteOp> batch = new ArrayList<>(batchSize);
+        while (running || !pending.isEmpty()) {
+            try {
+                WriteOp first = pending.poll(IDLE_POLL_MS, TimeUnit.MILLISECONDS);
+                if (first != null) {
+                    batch.add(first);
+                    pending.drainTo(batch, batchSize - 1);
+                    writeBatch(batch);
+                    batch.clear();
+                }
+                syncSoldOut();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (RuntimeException e) {
+                logger.warn("Meal reservation writer failed, continuing", e);
+            }
+        }
+    }
+
+    private void writeBatch(List<WriteOp> batch) {
+        try {
+            newTransaction.executeWithoutResult(tx -> {
+                // Runs of the same kind keep their order, so a cancel and a new claim by one student stay in sequence
+                int start = 0;
+                while (start < batch.size()) {
+                    Kind kind = batch.get(start).kind();
+                    int end = start;
+                    List<ReservationWrite> run = new ArrayList<>();
+                    while (end < batch.size() && batch.get(end).kind() == kind) {
+                        run.add(batch.get(end).write());
+                        end++;
+                    }
+                    persist(kind, run);
+                    start = end;
+                }
+            });
+        } catch (RuntimeException e) {
+            logger.warn("Failed to save {} meal reservation changes as a batch, saving them one by one",
+                    batch.size(), e);
+            batch.forEach(this::writeOne);
+            return;
+        }
+        batch.forEach(op -> op.done().complete(null));
+    }
+
+    // Same order as the batch, so only the op that fails on its own is reported as failed
+    private void writeOne(WriteOp op) {
+        try {
+            newTransaction.executeWithoutResult(tx -> persist(op.kind(), List.of(op.write())));
+        } catch (DuplicateKeyException e) {
+            op.done().completeExceptionally(new BadRequestException("Student has already reserved this meal"));
+            return;
+        } catch (RuntimeException e) {
+            logger.warn("Failed to save meal reservation change {} {}", op.kind(), op.write(), e);
+            op.done().completeExceptionally(
+                    new ServiceUnavailableException("Could not save the reservation, please retry"));
+            return;
+        }
+        op.done().complete(null);
+    }
+
+    private void persist(Kind kind, List<ReservationWrite> writes) {
+        if (kind == Kind.CLAIM) {
+            reservationRepository.insertReservations(writes);
+        } else {
+            reservationRepository.cancelReservations(writes);
+        }
+    }
+
+    private void syncSoldOut() {
+        Map<Long, Boolean> changes = new HashMap<>();
+        for (Iterator<Long> it = dirty.iterator(); it.hasNext(); ) {
+            Long mealId = it.next();
+            it.remove();
+            MealStock stock = stocks.get(mealId);
+            if (stock == null) {
+                continue;
+            }
+            boolean soldOut = stock.portions.sum() == 0;
+            if (soldOut != stock.persistedSoldOut) {
+                changes.put(mealId, soldOut);
+            }
+        }
+        if (changes.isEmpty()) {
+            return;
+        }
+        try {
+            newTransaction.executeWithoutResult(tx -> reservationRepository.updateSoldOut(changes));
+        } catch (RuntimeException e) {
+            logger.warn("Failed to update the sold-out state of {} meals, retrying", changes.size(), e);
+            dirty.addAll(changes.keySet());
+            return;
+        }
+        changes.forEach((mealId, soldOut) -> {
+            MealStock stock = stocks.get(mealId);
+            if (stock != null) {
+                stock.persistedSoldOut = soldOut;
+                menuCache.evictAfterCommit(stock.hallId, stock.mealDate);
+            }
+        });
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private enum Kind {
+        CLAIM,
+        CANCEL
+    }
+
+    // CLAIMING and CANCELLING hold a student's slot while their write is in the log
+    private enum Holding {
+        CLAIMING,
+        RESERVED,
+        CANCELLING
+    }
+
+    private record WriteOp(Kind kind, ReservationWrite write, CompletableFuture<Void> done) {
+    }
+
+    private static final class MealStock {
+        final long hallId;
+        final LocalDateTime mealDate;
+        final PortionCounter portions;
+        final ConcurrentHashMap<Long, Holding> holders = new ConcurrentHashMap<>();
+        // meals.quantity the counter reflects; guarded by the stock's monitor
+        int quantity;
+        // The admin's is_available; a sold-out meal stays open and takes claims again once a portion comes back
+        volatile boolean open;
+        // Only the writer thread touches this
+        volatile boolean persistedSoldOut;
+
+        MealStock(long hallId, LocalDateTime mealDate, PortionCounter portions) {
+            this.hallId = hallId;
+            this.mealDate = mealDate;
+            this.portions = portions;
+        }
+    }
+}
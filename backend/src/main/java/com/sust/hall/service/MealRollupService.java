@@ -0,0 +1,216 @@
+package com.sust.hall.service;
+
+import com.sust.hall.dto.MealRollupDTO;
+import com.sust.hall.entity.Hall;
+import com.sust.hall.enums.MealRollupPeriod;
+import com.sust.hall.enums.MealType;
+import com.sust.hall.exeptions.BadRequestException;
+import com.sust.hall.repository.MealRollupRepository;
+import com.sust.hall.repository.MealRollupRepository.DirtyDay;
+import com.sust.hall.repository.MealRollupRepository.RollupDay;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Keeps meal_rollups in step with the meals table. A meal write marks its
+ * (hall, day) in meal_rollup_dirty within its own transaction, so the mark
+ * survives a crash or redeploy exactly when the write does. A scheduled flush
+ * rebuilds just those day buckets from the meals table and their months from the
+ * day buckets, which keeps min and max exact after updates and deletes. Set-based
+ * writes rebuild their range directly, and a chunked backfill covers everything older.
+ *
+ * With {@code meal.rollup.prune-after-days} set, meals older than that are
+ * deleted once rolled up, and writes to those days are refused so the rollups
+ * never need the pruned rows again.
+ */
+@Service
+public class MealRollupService {
+
+    private static final Logger logger = LoggerFactory.getLogger(MealRollupService.class);
+
+    private static final int PRUNE_BATCH = 5000;
+    private static final int FLUSH_BATCH = 1000;
+
+    private final MealRollupRepository rollupRepository;
+    private final HallRegistry hallRegistry;
+    private final TransactionTemplate newTransaction;
+    private final TransactionTemplate flushTransaction;
+    private final int backfillChunkDays;
+    private final int pruneAfterDays;
+
+    public MealRollupService(MealRollupRepository rollupRepository, HallRegistry hallRegistry,
+            PlatformTransactionManager transactionManager,
+            @Value("${meal.rollup.backfill-chunk-days:31}") int backfillChunkDays,
+            @Value("${meal.rollup.prune-after-days:0}") int pruneAfterDays) {
+        this.rollupRepository = rollupRepository;
+        this.hallRegistry = hallRegistry;
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        // Read committed: the rebuild sees the latest meals without share-locking them against writers
+        this.flushTransaction = new TransactionTemplate(transactionManager);
+        this.flushTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.flushTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_READ_COMMITTED);
+        this.backfillChunkDays = Math.max(1, backfillChunkDays);
+        this.pruneAfterDays = pruneAfterDays;
+    }
+
+    /**
+     * Marks the meal's day dirty in the caller's transaction. Call it before writing
+     * the meal, so writers lock the mark before the meal rows, as the flush does.
+     */
+    public void markDirty(Long hallId, LocalDateTime mealDate) {
+        if (hallId != null && mealDate != null) {
+            markDirty(List.of(new RollupDay(hallId, mealDate.toLocalDate())));
+        }
+    }
+
+    public void markDirty(Collection<RollupDay> days) {
+        if (!days.isEmpty()) {
+            rollupRepository.markDirty(days);
+        }
+    }
+
+    /** Rebuilds the days in [from, to) and their months in the caller's transaction. */
+    public void rebuild(Long hallId, LocalDate from, LocalDate to) {
+        rollupRepository.rebuildDays(hallId, from, to);
+        rollupRepository.rebuildMonths(hallId, from.withDayOfMonth(1), to.minusDays(1).withDayOfMonth(1).plusMonths(1));
+    }
+
+    @Scheduled(fixedDelayString = "${meal.rollup.flush-ms:5000}")
+    public void flush() {
+        flushDirtyDays();
+    }
+
+    // Returns false when some dirty days could not be rebuilt and are left for the next flush
+    private boolean flushDirtyDays() {
+        try {
+            Integer flushed;
+            do {
+                flushed = flushTransaction.execute(tx -> {
+                    List<DirtyDay> days = rollupRepository.findDirtyDays(FLUSH_BATCH);
+                    Set<RollupDay> months = new LinkedHashSet<>();
+                    for (DirtyDay dirty : days) {
+                        RollupDay day = dirty.day();
+                        rollupRepository.rebuildDays(day.hallId(), day.day(), day.day().plusDays(1));
+                        months.add(new RollupDay(day.hallId(), day.day().withDayOfMonth(1)));
+                    }
+                    for (RollupDay month : months) {
+                        rollupRepository.rebuildMonths(month.hallId(), month.day(), month.day().plusMonths(1));
+                    }
+                    rollupRepository.clearDirtyDays(days);
+                    return days.size();
+                });
+            } while (flushed != null && flushed == FLUSH_BATCH);
+            return true;
+        } catch (RuntimeException e) {
+            logger.warn("Failed to rebuild dirty meal rollup days, retrying on the next flush", e);
+            return false;
+        }
+    }
+
+    /** Rebuilds every rollup from the meals table, one chunk of days per transaction. Returns the days covered. */
+    public long backfill() {
+        LocalDate[] range = rollupRepository.findMealDateRange().orElse(null);
+        if (range == null) {
+            return 0;
+        }
+        LocalDate end = range[1].plusDays(1);
+        long days = 0;
+        for (LocalDate start = range[0]; start.isBefore(end); start = start.plusDays(backfillChunkDays)) {
+            LocalDate chunkStart = start;
+            LocalDate chunkEnd = start.plusDays(backfillChunkDays).isAfter(end) ? end : start.plusDays(backfillChunkDays);
+            newTransaction.executeWithoutResult(tx -> rebuild(null, chunkStart, chunkEnd));
+            days += chunkEnd.toEpochDay() - chunkStart.toEpochDay();
+        }
+        logger.info("Backfilled meal rollups for {} days from {}", days, range[0]);
+        return days;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillIfEmpty() {
+        try {
+            if (rollupRepository.isEmpty()) {
+                backfill();
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Meal rollup backfill failed; run it again from the admin API", e);
+        }
+    }
+
+    @Scheduled(cron = "${meal.rollup.prune-cron:0 15 4 * * *}")
+    public void pruneRawMeals() {
+        if (pruneAfterDays <= 0) {
+            return;
+        }
+        // Make sure every pending change to those days has been rolled up first
+        if (!flushDirtyDays()) {
+            logger.warn("Skipping meal pruning until the dirty rollup days are rebuilt");
+            return;
+        }
+        LocalDateTime cutoff = archiveHorizon();
+        newTransaction.executeWithoutResult(tx -> {
+            rollupRepository.deleteReservationsOfMealsBefore(cutoff);
+            rollupRepository.deleteRatingsOfMealsBefore(cutoff);
+        });
+        int total = 0;
+        int deleted;
+        do {
+            deleted = rollupRepository.deleteMealsBefore(cutoff, PRUNE_BATCH);
+            total += deleted;
+        } while (deleted == PRUNE_BATCH);
+        if (total > 0) {
+            logger.info("Pruned {} meals dated before {}", total, cutoff);
+        }
+    }
+
+    public boolean isArchived(LocalDateTime mealDate) {
+        return pruneAfterDays > 0 && mealDate != null && mealDate.isBefore(archiveHorizon());
+    }
+
+    public void checkNotArchived(LocalDateTime mealDate) {
+        if (isArchived(mealDate)) {
+            throw new BadRequestException("Meals dated before " + archiveHorizon().toLocalDate()
+                    + " are archived and can no longer be changed");
+        }
+    }
+
+    /** Served from meal_rollups only; defaults to the last 30 days or the last 12 months. */
+    public List<MealRollupDTO> getRollups(Long hallId, MealType mealType, MealRollupPeriod period,
+            LocalDate from, LocalDate to) {
+        MealRollupPeriod effective = period != null ? period : MealRollupPeriod.DAY;
+        LocalDate end = to != null ? to : LocalDate.now().plusDays(1);
+        LocalDate start = from != null ? from
+                : effective == MealRollupPeriod.DAY ? end.minusDays(30) : end.withDayOfMonth(1).minusMonths(11);
+        if (effective == MealRollupPeriod.MONTH) {
+            start = start.withDayOfMonth(1);
+        }
+        if (!start.isBefore(end)) {
+            throw new BadRequestException("from must be before to");
+        }
+        List<MealRollupDTO> rollups = rollupRepository.findRollups(hallId, mealType, effective, start, end);
+        for (MealRollupDTO rollup : rollups) {
+            rollup.setHallName(hallRegistry.findById(rollup.getHallId()).map(Hall::getHallName).orElse(null));
+        }
+        return rollups;
+    }
+
+    private LocalDateTime archiveHorizon() {
+        return LocalDate.now().minusDays(pruneAfterDays).atStartOfDay();
+    }
+}
@@ -3,15 +3,31 @@ package com.sust.hall.service;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import com.sust.hall.dto.MealBatchResult;
+import com.sust.hall.dto.CursorPage;
+import com.sust.hall.dto.MealCloneRequest;
 import com.sust.hall.dto.MealDTO;
+import com.sust.hall.dto.MealRollupDTO;
 import com.sust.hall.entity.Meal;
 import com.sust.hall.entity.Hall;
+import com.sust.hall.enums.MealRollupPeriod;
 import com.sust.hall.enums.MealType;
+import com.sust.hall.exeptions.BadRequestException;
+import com.sust.hall.repository.MealJdbcRepository;
+import com.sust.hall.repository.KeysetCursor;
 import com.sust.hall.repository.MealRepository;
-import com.sust.hall.repository.HallRepository;
+import com.sust.hall.repository.MealRollupRepository.RollupDay;
+import com.sust.hall.repository.MealSearchRepository.MealSort;
+import java.time.Duration;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
 import jakarta.persistence.EntityNotFoundException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -23,97 +39,93 @@ public class MealService {
 
     private static final Logger logger = LoggerFactory.getLogger(MealService.class);
 
+    private static final int MAX_CLONE_COPIES = 52;
+
     @Autowired
     private MealRepository mealRepository;
 
     @Autowired
-    private HallRepository hallRepository;
+    private HallRegistry hallRegistry;
+
+    @Autowired
+    private MealMenuCache menuCache;
+
+    @Autowired
+    private MealJdbcRepository mealJdbcRepository;
+
+    @Autowired
+    private MealReservationService reservationService;
+
+    @Autowired
+    private MealRollupService rollupService;
+
+    @Autowired
+    private MealRatingService ratingService;
 
     // Get all meals
     public List<MealDTO> getAllMeals() {
-        return mealRepository.findAll().stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return mealRepository.findAllMeals();
     }
 
     // Get meals by hall ID
     public List<MealDTO> getMealsByHallId(Long hallId) {
         validateHallExists(hallId);
-        return mealRepository.findByHallId(hallId).stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return mealRepository.findByHallId(hallId);
     }
 
     // Get meals by hall name
     public List<MealDTO> getMealsByHallName(String hallName) {
-        Hall hall = hallRepository.findByHallName(hallName)
+        Hall hall = hallRegistry.findByHallName(hallName)
                 .orElseThrow(() -> new EntityNotFoundException("Hall not found with name: " + hallName));
-        return mealRepository.findByHallId(hall.getId()).stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return mealRepository.findByHallId(hall.getId());
     }
 
     // Get meals by hall and meal type
     public List<MealDTO> getMealsByHallAndType(Long hallId, MealType mealType) {
         validateHallExists(hallId);
-        return mealRepository.findByHallIdAndMealType(hallId, mealType).stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return mealRepository.findByHallIdAndMealType(hallId, mealType);
     }
 
     // Get meals by hall name and meal type
     public List<MealDTO> getMealsByHallNameAndType(String hallName, MealType mealType) {
-        Hall hall = hallRepository.findByHallName(hallName)
+        Hall hall = hallRegistry.findByHallName(hallName)
                 .orElseThrow(() -> new EntityNotFoundException("Hall not found with name: " + hallName));
-        return mealRepository.findByHallIdAndMealType(hall.getId(), mealType).stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return mealRepository.findByHallIdAndMealType(hall.getId(), mealType);
     }
 
     // Get today's meals by hall ID
     public List<MealDTO> getTodaysMeals(Long hallId) {
         validateHallExists(hallId);
-        return mealRepository.findTodaysMealsByHallId(hallId).stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return todaysMenu(hallId);
+    }
+
+    private List<MealDTO> todaysMenu(Long hallId) {
+        LocalDate today = LocalDate.now();
+        return menuCache.get(hallId, today, () -> mealRepository.findMealsByHallAndDay(hallId, today));
     }
 
     // Get today's meals by hall name
     public List<MealDTO> getTodaysMealsByHallName(String hallName) {
         try {
-            logger.info("Looking for hall with name: '{}'", hallName);
-            
-            // Try exact match first
-            Optional<Hall> hallOpt = hallRepository.findByHallName(hallName);
+            logger.debug("Looking for hall with name: '{}'", hallName);
             
-            // If not found, try case-insensitive search
-            if (hallOpt.isEmpty()) {
-                logger.info("Exact match not found, trying case-insensitive search...");
-                List<Hall> allHalls = hallRepository.findAll();
-                hallOpt = allHalls.stream()
-                    .filter(hall -> hall.getHallName().equalsIgnoreCase(hallName))
-                    .findFirst();
-            }
+            // Registry lookups are already case-insensitive
+            Optional<Hall> hallOpt = hallRegistry.findByHallName(hallName);
             
             if (hallOpt.isEmpty()) {
                 logger.error("Hall not found with name: '{}'", hallName);
-                List<String> availableHalls = hallRepository.findAll().stream()
-                    .map(Hall::getHallName)
-                    .collect(Collectors.toList());
-                logger.info("Available halls: {}", availableHalls);
+                logger.info("Available halls: {}", hallRegistry.findAllHallNames());
                 throw new EntityNotFoundException("Hall not found with name: " + hallName);
             }
             
             Hall hall = hallOpt.get();
-            logger.info("Found hall: {} (ID: {})", hall.getHallName(), hall.getId());
+            logger.debug("Found hall: {} (ID: {})", hall.getHallName(), hall.getId());
             
             // Get today's meals
-            List<Meal> meals = mealRepository.findTodaysMealsByHallId(hall.getId());
-            logger.info("Found {} meals for today in hall: {}", meals.size(), hall.getHallName());
+            List<MealDTO> meals = todaysMenu(hall.getId());
+            logger.debug("Found {} meals for today in hall: {}", meals.size(), hall.getHallName());
             
-            return meals.stream()
-                    .map(this::convertToDTO)
-                    .collect(Collectors.toList());
+            return meals;
             
         } catch (Exception e) {
             logger.error("Error in getTodaysMealsByHallName for hall: '{}'", hallName, e);
@@ -124,55 +136,68 @@ public class MealService {
     // Get meals by date range
     public List<MealDTO> getMealsByDateRange(Long hallId, LocalDateTime startDate, LocalDateTime endDate) {
         validateHallExists(hallId);
-        return mealRepository.findMealsByHallAndDateRange(hallId, startDate, endDate).stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return mealRepository.findMealsByHallAndDateRange(hallId, startDate, endDate);
     }
 
     // Get meals by date range and hall name
     public List<MealDTO> getMealsByDateRangeAndHallName(String hallName, LocalDateTime startDate, LocalDateTime endDate) {
-        Hall hall = hallRepository.findByHallName(hallName)
+        Hall hall = hallRegistry.findByHallName(hallName)
                 .orElseThrow(() -> new EntityNotFoundException("Hall not found with name: " + hallName));
-        return mealRepository.findMealsByHallAndDateRange(hall.getId(), startDate, endDate).stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return mealRepository.findMealsByHallAndDateRange(hall.getId(), startDate, endDate);
     }
 
     // Get available meals
     public List<MealDTO> getAvailableMeals() {
-        return mealRepository.findAllAvailableMeals().stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return mealRepository.findAllAvailableMeals();
     }
 
     // Get available meals by hall ID
     public List<MealDTO> getAvailableMealsByHall(Long hallId) {
         validateHallExists(hallId);
-        return mealRepository.findAvailableMealsByHallId(hallId).stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return mealRepository.findAvailableMealsByHallId(hallId);
     }
 
     // Get available meals by hall name
     public List<MealDTO> getAvailableMealsByHallName(String hallName) {
-        Hall hall = hallRepository.findByHallName(hallName)
+        Hall hall = hallRegistry.findByHallName(hallName)
                 .orElseThrow(() -> new EntityNotFoundException("Hall not found with name: " + hallName));
-        return mealRepository.findAvailableMealsByHallId(hall.getId()).stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return mealRepository.findAvailableMealsByHallId(hall.getId());
+    }
+
+    // Search meals with any combination of filters, one keyset page at a time
+    public CursorPage<MealDTO> searchMeals(String hallName, Long hallId, MealType mealType, LocalDateTime from,
+            LocalDateTime to, Boolean available, MealSort sort, String cursor, Integer limit) {
+        Long resolvedHallId = hallId;
+        if (hallName != null && !hallName.isBlank()) {
+            resolvedHallId = hallRegistry.findByHallName(hallName)
+                    .orElseThrow(() -> new EntityNotFoundException("Hall not found with name: " + hallName))
+                    .getId();
+        }
+        return mealRepository.searchMeals(resolvedHallId, mealType, from, to, available,
+                sort != null ? sort : MealSort.NEWEST, cursor, KeysetCursor.clampLimit(limit, 50, 200));
+    }
+
+    // Meal analytics per hall and type, served from the rollup table
+    public List<MealRollupDTO> getMealAnalytics(String hallName, MealType mealType, MealRollupPeriod period,
+            LocalDate from, LocalDate to) {
+        Long hallId = null;
+        if (hallName != null && !hallName.isBlank()) {
+            hallId = hallRegistry.findByHallName(hallName)
+                    .orElseThrow(() -> new EntityNotFoundException("Hall not found with name: " + hallName))
+                    .getId();
+        }
+        return rollupService.getRollups(hallId, mealType, period, from, to);
     }
 
     // Get meals by type
     public List<MealDTO> getMealsByType(MealType mealType) {
-        return mealRepository.findByMealType(mealType).stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return mealRepository.findByMealType(mealType);
     }
 
     // Create meal - UPDATED to use hallName
     public MealDTO createMeal(MealDTO mealDTO) {
         // Find hall by name instead of ID
-        Hall hall = hallRepository.findByHallName(mealDTO.getHallName())
+        Hall hall = hallRegistry.findByHallName(mealDTO.getHallName())
                 .orElseThrow(() -> new EntityNotFoundException("Hall not found with name: " + mealDTO.getHallName()));
 
         Meal meal = new Meal();
@@ -184,19 +209,159 @@ public class MealService {
         meal.setQuantity(mealDTO.getQuantity());
         meal.setMealDate(mealDTO.getMealDate() != null ? mealDTO.getMealDate() : LocalDateTime.now());
         meal.setIsAvailable(mealDTO.getIsAvailable() != null ? mealDTO.getIsAvailable() : true);
+        rollupService.checkNotArchived(meal.getMealDate());
+        rollupService.markDirty(hall.getId(), meal.getMealDate());
 
         Meal savedMeal = mealRepository.save(meal);
+        menuCache.evictAfterCommit(hall.getId(), savedMeal.getMealDate());
         return convertToDTO(savedMeal);
     }
 
+    // Create many meals: resolve each hall once, validate everything, then insert as one JDBC batch
+    public MealBatchResult createMealsBatch(List<MealDTO> mealDTOs, MealBatchResult.Mode mode) {
+        Map<String, Optional<Hall>> halls = new HashMap<>();
+        List<MealBatchResult.ItemResult> items = new ArrayList<>(mealDTOs.size());
+        List<Meal> valid = new ArrayList<>(mealDTOs.size());
+        List<MealBatchResult.ItemResult> validItems = new ArrayList<>(mealDTOs.size());
+        LocalDateTime now = LocalDateTime.now();
+
+        for (int i = 0; i < mealDTOs.size(); i++) {
+            MealDTO dto = mealDTOs.get(i);
+            String error = validateForBatch(dto, halls);
+            if (error != null) {
+                items.add(new MealBatchResult.ItemResult(i, MealBatchResult.Status.INVALID, dto, error));
+                continue;
+            }
+            Meal meal = new Meal();
+            meal.setHall(halls.get(dto.getHallName().toLowerCase(Locale.ROOT)).get());
+            meal.setMealType(dto.getMealType());
+            meal.setMealName(dto.getMealName());
+            meal.setDescription(dto.getDescription());
+            meal.setPrice(dto.getPrice());
+            meal.setQuantity(dto.getQuantity());
+            meal.setMealDate(dto.getMealDate() != null ? dto.getMealDate() : now);
+            meal.setIsAvailable(dto.getIsAvailable() != null ? dto.getIsAvailable() : true);
+            meal.setCreatedAt(now);
+            meal.setUpdatedAt(now);
+            valid.add(meal);
+
+            MealBatchResult.ItemResult item = new MealBatchResult.ItemResult(i, MealBatchResult.Status.SKIPPED, dto, null);
+            items.add(item);
+            validItems.add(item);
+        }
+
+        int failed = mealDTOs.size() - valid.size();
+        if (mode == MealBatchResult.Mode.ALL_OR_NOTHING && failed > 0) {
+            return new MealBatchResult(mode, mealDTOs.size(), 0, failed, items);
+        }
+
+        Set<RollupDay> days = new LinkedHashSet<>();
+        for (Meal meal : valid) {
+            days.add(new RollupDay(meal.getHall().getId(), meal.getMealDate().toLocalDate()));
+        }
+        rollupService.markDirty(days);
+        mealJdbcRepository.batchInsert(valid);
+        for (int i = 0; i < valid.size(); i++) {
+            Meal meal = valid.get(i);
+            menuCache.evictAfterCommit(meal.getHall().getId(), meal.getMealDate());
+            validItems.get(i).setStatus(MealBatchResult.Status.CREATED);
+            validItems.get(i).setMeal(convertToDTO(meal));
+        }
+        return new MealBatchResult(mode, mealDTOs.size(), valid.size(), failed, items);
+    }
+
+    private String validateForBatch(MealDTO dto, Map<String, Optional<Hall>> halls) {
+        if (dto == null) {
+            return "Meal is required";
+        }
+        if (dto.getHallName() == null || dto.getHallName().isBlank()) {
+            return "Hall name is required";
+        }
+        Optional<Hall> hall = halls.computeIfAbsent(dto.getHallName().toLowerCase(Locale.ROOT),
+                name -> hallRegistry.findByHallName(name));
+        if (hall.isEmpty()) {
+            return "Hall not found with name: " + dto.getHallName();
+        }
+        if (dto.getMealType() == null) {
+            return "Meal type is required";
+        }
+        if (dto.getMealName() == null || dto.getMealName().isBlank()) {
+            return "Meal name is required";
+        }
+        if (dto.getMealName().length() > 255) {
+            return "Meal name must be at most 255 characters";
+        }
+        if (dto.getDescription() != null && dto.getDescription().length() > 500) {
+            return "Description must be at most 500 characters";
+        }
+        if (dto.getPrice() == null || dto.getPrice() < 0) {
+            return "Price must be zero or more";
+        }
+        if (dto.getQuantity() == null || dto.getQuantity() < 0) {
+            return "Quantity must be zero or more";
+        }
+        if (rollupService.isArchived(dto.getMealDate())) {
+            return "Meal date is in the archived range";
+        }
+        return null;
+    }
+
+    // Clone a date range of meals into a later or earlier range in one INSERT ... SELECT
+    public int cloneMeals(MealCloneRequest request) {
+        if (request.getSourceFrom() == null || request.getSourceTo() == null || request.getTargetFrom() == null) {
+            throw new BadRequestException("sourceFrom, sourceTo and targetFrom are required");
+        }
+        if (!request.getSourceFrom().isBefore(request.getSourceTo())) {
+            throw new BadRequestException("sourceFrom must be before sourceTo");
+        }
+        int copies = request.getRepeat() != null ? request.getRepeat() : 1;
+        if (copies < 1 || copies > MAX_CLONE_COPIES) {
+            throw new BadRequestException("repeat must be between 1 and " + MAX_CLONE_COPIES);
+        }
+        if (request.getPrice() != null && request.getPrice() < 0) {
+            throw new BadRequestException("Price must be zero or more");
+        }
+        if (request.getQuantity() != null && request.getQuantity() < 0) {
+            throw new BadRequestException("Quantity must be zero or more");
+        }
+        long periodSeconds = Duration.between(request.getSourceFrom(), request.getSourceTo()).getSeconds();
+        long offsetSeconds = Duration.between(request.getSourceFrom(), request.getTargetFrom()).getSeconds();
+        // The target copies must not overlap the source range they are read from
+        if (offsetSeconds > -periodSeconds * copies && offsetSeconds < periodSeconds) {
+            throw new BadRequestException("Target range overlaps the source range");
+        }
+
+        LocalDateTime targetStart = request.getSourceFrom().plusSeconds(offsetSeconds);
+        LocalDateTime targetEnd = targetStart.plusSeconds(periodSeconds * copies);
+        rollupService.checkNotArchived(targetStart);
+
+        Long hallId = null;
+        if (request.getHallName() != null && !request.getHallName().isBlank()) {
+            hallId = hallRegistry.findByHallName(request.getHallName())
+                    .orElseThrow(() -> new EntityNotFoundException("Hall not found with name: " + request.getHallName()))
+                    .getId();
+        }
+        int created = mealJdbcRepository.cloneMeals(hallId, request.getSourceFrom(), request.getSourceTo(),
+                offsetSeconds, periodSeconds, copies, request.getPrice(), request.getQuantity());
+        if (created > 0) {
+            menuCache.clearAfterCommit();
+            rollupService.rebuild(hallId, targetStart.toLocalDate(), targetEnd.minusNanos(1).toLocalDate().plusDays(1));
+        }
+        return created;
+    }
+
     // Update meal - UPDATED to handle hallName if provided
     public MealDTO updateMeal(Long id, MealDTO mealDTO) {
         Meal meal = mealRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Meal not found with ID: " + id));
+        // The meal may move to another hall or day, so evict where it was as well as where it ends up
+        rollupService.checkNotArchived(meal.getMealDate());
+        menuCache.evictAfterCommit(meal.getHall().getId(), meal.getMealDate());
+        rollupService.markDirty(meal.getHall().getId(), meal.getMealDate());
 
         // If hallName is provided in update, change the hall
         if (mealDTO.getHallName() != null && !mealDTO.getHallName().isEmpty()) {
-            Hall hall = hallRepository.findByHallName(mealDTO.getHallName())
+            Hall hall = hallRegistry.findByHallName(mealDTO.getHallName())
                     .orElseThrow(() -> new EntityNotFoundException("Hall not found with name: " + mealDTO.getHallName()));
             meal.setHall(hall);
         }
@@ -223,35 +388,42 @@ public class MealService {
             meal.setMealType(mealDTO.getMealType());
         }
 
+        rollupService.checkNotArchived(meal.getMealDate());
+        rollupService.markDirty(meal.getHall().getId(), meal.getMealDate());
         Meal updatedMeal = mealRepository.save(meal);
+        menuCache.evictAfterCommit(updatedMeal.getHall().getId(), updatedMeal.getMealDate());
+        reservationService.onMealUpdated(id);
         return convertToDTO(updatedMeal);
     }
 
     // Delete meal
     public void deleteMeal(Long id) {
-        if (!mealRepository.existsById(id)) {
-            throw new EntityNotFoundException("Meal not found with ID: " + id);
-        }
-        mealRepository.deleteById(id);
+        Meal meal = mealRepository.findById(id)
+                .orElseThrow(() -> new EntityNotFoundException("Meal not found with ID: " + id));
+        rollupService.checkNotArchived(meal.getMealDate());
+        menuCache.evictAfterCommit(meal.getHall().getId(), meal.getMealDate());
+        rollupService.markDirty(meal.getHall().getId(), meal.getMealDate());
+        reservationService.onMealDeleted(id);
+        ratingService.onMealDeleted(id);
+        mealRepository.delete(meal);
     }
 
     // Get meal by ID
     public MealDTO getMealById(Long id) {
-        Meal meal = mealRepository.findById(id)
+        return mealRepository.findMealById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Meal not found with ID: " + id));
-        return convertToDTO(meal);
     }
 
     // Validate hall exists by ID
     private void validateHallExists(Long hallId) {
-        if (!hallRepository.existsById(hallId)) {
+        if (!hallRegistry.existsById(hallId)) {
             throw new EntityNotFoundException("Hall not found with ID: " + hallId);
         }
     }
 
     // Validate hall exists by name
     private void validateHallExists(String hallName) {
-        if (!hallRepository.existsByHallName(hallName)) {
+        if (!hallRegistry.existsByHallName(hallName)) {
             throw new EntityNotFoundException("Hall not found with name: " + hallName);
         }
     }
@@ -260,7 +432,11 @@ public class MealService {
     private MealDTO convertToDTO(Meal meal) {
         MealDTO dto = new MealDTO();
         dto.setId(meal.getId());
-        dto.setHallName(meal.getHall().getHallName()); // Only set hallName
+        // The hall is lazy; its id is known without loading it, and the name comes from the registry
+        Long hallId = meal.getHall().getId();
+        dto.setHallName(hallRegistry.findById(hallId)
+                .map(Hall::getHallName)
+                .orElseGet(() -> meal.getHall().getHallName()));
         dto.setMealType(meal.getMealType());
         dto.setMealName(meal.getMealName());
         dto.setDescription(meal.getDescription());
@@ -268,8 +444,10 @@ public class MealService {
         dto.setQuantity(meal.getQuantity());
         dto.setMealDate(meal.getMealDate());
         dto.setIsAvailable(meal.getIsAvailable());
+        dto.setSoldOut(Boolean.TRUE.equals(meal.getSoldOut()));
         dto.setCreatedAt(meal.getCreatedAt());
         dto.setUpdatedAt(meal.getUpdatedAt());
+        dto.setRating(meal.getRatingSum(), meal.getRatingCount());
         return dto;
     }
 }
\ No newline at end of file
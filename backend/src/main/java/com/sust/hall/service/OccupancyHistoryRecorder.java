@@ -0,0 +1,176 @@
+package com.sust.hall.service;
+
+import com.sust.hall.dto.OccupancyPointDTO;
+import com.sust.hall.entity.HallOccupancyRollup;
+import com.sust.hall.entity.HallOccupancySample;
+import com.sust.hall.enums.OccupancyResolution;
+import com.sust.hall.repository.OccupancyHistoryRepository;
+import com.sust.hall.service.HallRegistry.OccupancyChangedEvent;
+
+import jakarta.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Appends every committed occupancy change to hall_occupancy_samples and folds it
+ * into hourly and daily rollups. Changes are queued in memory and written by a
+ * scheduled flush as one batch insert plus one batch upsert in a single
+ * transaction, so hall writes never wait on history and a batch is never in the
+ * samples without its rollups. Raw samples expire after a retention window;
+ * rollups are kept. Rollup averages are per change event, not time-weighted.
+ */
+@Service
+public class OccupancyHistoryRecorder {
+
+    private static final Logger logger = LoggerFactory.getLogger(OccupancyHistoryRecorder.class);
+
+    private static final int FLUSH_BATCH = 1000;
+    private static final int EXPIRE_BATCH = 5000;
+
+    private final OccupancyHistoryRepository historyRepository;
+    private final TransactionTemplate newTransaction;
+    private final BlockingQueue<HallOccupancySample> pending;
+    private final int retentionDays;
+    private final LongAdder dropped = new LongAdder();
+
+    public OccupancyHistoryRecorder(OccupancyHistoryRepository historyRepository,
+            PlatformTransactionManager transactionManager,
+            @Value("${hall.history.queue-capacity:10000}") int queueCapacity,
+            @Value("${hall.history.raw-retention-days:30}") int retentionDays) {
+        this.historyRepository = historyRepository;
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.pending = new ArrayBlockingQueue<>(queueCapacity);
+        this.retentionDays = retentionDays;
+    }
+
+    @EventListener
+    public void onOccupancyChanged(OccupancyChangedEvent event) {
+        HallOccupancySample sample = new HallOccupancySample(null, event.hallId(), event.changedAt(),
+                event.occupancy(), event.capacity());
+        if (!pending.offer(sample)) {
+            // Never block a hall write on history
+            dropped.increment();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${hall.history.flush-ms:5000}")
+    public void flush() {
+        List<HallOccupancySample> batch = new ArrayList<>(FLUSH_BATCH);
+        while (pending.drainTo(batch, FLUSH_BATCH) > 0) {
+            try {
+                newTransaction.executeWithoutResult(tx -> {
+                    historyRepository.insertSamples(batch);
+                    historyRepository.upsertRollups(rollup(batch));
+                });
+            } catch (RuntimeException e) {
+                logger.warn("Failed to write {} occupancy samples, dropping them", batch.size(), e);
+                dropped.add(batch.size());
+            }
+            batch.clear();
+        }
+        long lost = dropped.sumThenReset();
+        if (lost > 0) {
+            logger.warn("Dropped {} occupancy samples since the last flush", lost);
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    @Scheduled(cron = "${hall.history.expire-cron:0 30 3 * * *}")
+    public void expireRawSamples() {
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(retentionDays);
+        int total = 0;
+        int deleted;
+        do {
+            deleted = historyRepository.deleteSamplesBefore(cutoff, EXPIRE_BATCH);
+            total += deleted;
+        } while (deleted == EXPIRE_BATCH);
+        if (total > 0) {
+            logger.info("Expired {} raw occupancy samples older than {}", total, cutoff);
+        }
+    }
+
+    /**
+     * Reads history for a hall. Without an explicit resolution, short ranges come
+     * from raw samples and longer ones only from the hourly or daily rollups.
+     */
+    public List<OccupancyPointDTO> getHistory(Long hallId, LocalDateTime from, LocalDateTime to,
+            OccupancyResolution resolution) {
+        OccupancyResolution effective = resolution != null ? resolution : defaultResolution(from, to);
+        if (effective == OccupancyResolution.RAW) {
+            return historyRepository.findSamples(hallId, from, to);
+        }
+        return historyRepository.findRollups(hallId, effective, truncate(from, effective), to);
+    }
+
+    private static OccupancyResolution defaultResolution(LocalDateTime from, LocalDateTime to) {
+        Duration range = Duration.between(from, to);
+        if (range.compareTo(Duration.ofDays(2)) <= 0) {
+            return OccupancyResolution.RAW;
+        }
+        if (range.compareTo(Duration.ofDays(90)) <= 0) {
+            return OccupancyResolution.HOUR;
+        }
+        return OccupancyResolution.DAY;
+    }
+
+    // Pre-aggregates the batch so each bucket is upserted once; samples arrive in commit order
+    private static List<HallOccupancyRollup> rollup(List<HallOccupancySample> samples) {
+        Map<BucketKey, HallOccupancyRollup> buckets = new LinkedHashMap<>();
+        for (HallOccupancySample sample : samples) {
+            addTo(buckets, sample, OccupancyResolution.HOUR);
+            addTo(buckets, sample, OccupancyResolution.DAY);
+        }
+        return new ArrayList<>(buckets.values());
+    }
+
+    private static void addTo(Map<BucketKey, HallOccupancyRollup> buckets, HallOccupancySample sample,
+            OccupancyResolution resolution) {
+        LocalDateTime start = truncate(sample.getSampledAt(), resolution);
+        int value = sample.getOccupancy();
+        HallOccupancyRollup bucket = buckets.get(new BucketKey(sample.getHallId(), resolution, start));
+        if (bucket == null) {
+            buckets.put(new BucketKey(sample.getHallId(), resolution, start),
+                    new HallOccupancyRollup(null, sample.getHallId(), resolution, start, value, value,
+                            (long) value, 1, value));
+            return;
+        }
+        bucket.setMinOccupancy(Math.min(bucket.getMinOccupancy(), value));
+        bucket.setMaxOccupancy(Math.max(bucket.getMaxOccupancy(), value));
+        bucket.setSumOccupancy(bucket.getSumOccupancy() + value);
+        bucket.setSampleCount(bucket.getSampleCount() + 1);
+        bucket.setLastOccupancy(value);
+    }
+
+    private static LocalDateTime truncate(LocalDateTime time, OccupancyResolution resolution) {
+        return resolution == OccupancyResolution.DAY
+                ? time.truncatedTo(ChronoUnit.DAYS)
+                : time.truncatedTo(ChronoUnit.HOURS);
+    }
+
+    private record BucketKey(Long hallId, OccupancyResolution resolution, LocalDateTime start) {
+    }
+}
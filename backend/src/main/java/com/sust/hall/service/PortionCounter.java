@@ -0,0 +1,72 @@
+package com.sust.hall.service;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Remaining portions of one meal, split across padded stripes so concurrent
+ * claims mostly CAS different cache lines. A claim takes from a random stripe and
+ * moves on to the others when it is empty; every decrement is a CAS on a positive
+ * value, so the total can never go below zero.
+ */
+final class PortionCounter {
+
+    // 16 ints keep every stripe on its own 64-byte cache line
+    private static final int PAD = 16;
+    private static final int MAX_STRIPES = 64;
+
+    private final int stripes;
+    private final AtomicIntegerArray cells;
+
+    PortionCounter(int initial) {
+        int n = 1;
+        while (n < Runtime.getRuntime().availableProcessors() && n < MAX_STRIPES) {
+            n <<= 1;
+        }
+        this.stripes = n;
+        this.cells = new AtomicIntegerArray(n * PAD);
+        int remaining = Math.max(0, initial);
+        for (int i = 0; i < n; i++) {
+            cells.set(i * PAD, remaining / n + (i < remaining % n ? 1 : 0));
+        }
+    }
+
+    boolean tryTake() {
+        int start = ThreadLocalRandom.current().nextInt(stripes);
+        for (int i = 0; i < stripes; i++) {
+            int index = ((start + i) & (stripes - 1)) * PAD;
+            int value;
+            while ((value = cells.get(index)) > 0) {
+                if (cells.compareAndSet(index, value, value - 1)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    void release() {
+        cells.getAndIncrement(ThreadLocalRandom.current().nextInt(stripes) * PAD);
+    }
+
+    /** Applies a quantity change; a cut larger than what is left leaves the meal at zero. */
+    void adjust(int delta) {
+        if (delta >= 0) {
+            cells.getAndAdd(0, delta);
+            return;
+        }
+        int toTake = -delta;
+        while (toTake > 0 && tryTake()) {
+            toTake--;
+        }
+    }
+
+    /** Exact only while no claim is in progress; good enough for display and availability. */
+    long sum() {
+        long total = 0;
+        for (int i = 0; i < stripes; i++) {
+            total += cells.get(i * PAD);
+        }
+        return total;
+    }
+}
@@ -0,0 +1,127 @@
+package com.sust.hall.service;
+
+import com.sust.hall.dto.SeatAllocationRequest;
+import com.sust.hall.dto.SeatAllocationResult;
+import com.sust.hall.entity.Hall;
+import com.sust.hall.exeptions.BadRequestException;
+import com.sust.hall.repository.HallRepository;
+import com.sust.hall.repository.UserRepository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Places a whole intake of students into halls in one go. Candidates and hall
+ * capacities are loaded into flat arrays, each hall takes the next contiguous
+ * run of candidates up to its free seats, and the result is written back with
+ * chunked user updates plus one batch of guarded occupancy updates, all in a
+ * single transaction.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class SeatAllocationService {
+
+    private final UserRepository userRepository;
+    private final HallRepository hallRepository;
+    private final HallRegistry hallRegistry;
+
+    @Transactional
+    public SeatAllocationResult allocate(SeatAllocationRequest request) {
+        if (request.getHallType() == null) {
+            throw new BadRequestException("Hall type is required");
+        }
+        // Users carry no gender, so the cohort must be named explicitly to match the hall type
+        if (request.getUserIds() == null || request.getUserIds().isEmpty()) {
+            throw new BadRequestException("User ids are required");
+        }
+
+        // Lock the halls for a real run so nobody else takes seats while we place students
+        List<Hall> halls = orderByPreference(request.isDryRun()
+                ? hallRegistry.findByType(request.getHallType())
+                : hallRepository.findByTypeForUpdate(request.getHallType()),
+                request.getHallPreference());
+        long[] candidates = userRepository.findUnassignedStudentIds(request.getUserIds());
+
+        int hallCount = halls.size();
+        int[] capacity = new int[hallCount];
+        int[] before = new int[hallCount];
+        int[] start = new int[hallCount];
+        int[] end = new int[hallCount];
+
+        int next = 0;
+        for (int h = 0; h < hallCount; h++) {
+            Hall hall = halls.get(h);
+            capacity[h] = hall.getCapacity() == null ? 0 : hall.getCapacity();
+            before[h] = hall.getCurrentOccupancy() == null ? 0 : hall.getCurrentOccupancy();
+            int take = Math.min(Math.max(0, capacity[h] - before[h]), candidates.length - next);
+            start[h] = next;
+            end[h] = next + take;
+            next += take;
+        }
+
+        int[] assigned = new int[hallCount];
+        if (request.isDryRun()) {
+            for (int h = 0; h < hallCount; h++) {
+                assigned[h] = end[h] - start[h];
+            }
+        } else {
+            Map<Long, Integer> deltas = new HashMap<>();
+            for (int h = 0; h < hallCount; h++) {
+                if (end[h] > start[h]) {
+                    // Users assigned elsewhere since we read them are skipped, so count what stuck
+                    assigned[h] = userRepository.assignHall(halls.get(h).getHallName(), candidates, start[h], end[h]);
+                    deltas.put(halls.get(h).getId(), assigned[h]);
+                }
+            }
+            List<Long> rejected = hallRepository.adjustOccupancies(deltas);
+            if (!rejected.isEmpty()) {
+                throw new IllegalStateException("Capacity changed during allocation for halls " + rejected);
+            }
+        }
+
+        List<SeatAllocationResult.HallAllocation> allocations = new ArrayList<>(hallCount);
+        int totalAssigned = 0;
+        for (int h = 0; h < hallCount; h++) {
+            Hall hall = halls.get(h);
+            allocations.add(new SeatAllocationResult.HallAllocation(hall.getId(), hall.getHallName(),
+                    capacity[h], before[h], assigned[h], before[h] + assigned[h]));
+            totalAssigned += assigned[h];
+        }
+        log.info("Seat allocation for {} halls (dryRun={}): {} candidates, {} assigned",
+                request.getHallType(), request.isDryRun(), candidates.length, totalAssigned);
+        return new SeatAllocationResult(request.isDryRun(), candidates.length, totalAssigned,
+                candidates.length - totalAssigned, allocations);
+    }
+
+    private List<Hall> orderByPreference(List<Hall> halls, List<String> preference) {
+        Map<String, Integer> rank = new LinkedHashMap<>();
+        if (preference != null) {
+            for (String name : preference) {
+                rank.putIfAbsent(name.toLowerCase(Locale.ROOT), rank.size());
+            }
+        }
+        for (String name : rank.keySet()) {
+            boolean known = halls.stream().anyMatch(hall -> hall.getHallName().equalsIgnoreCase(name));
+            if (!known) {
+                throw new BadRequestException("No active hall of this type named '" + name + "'");
+            }
+        }
+        List<Hall> ordered = new ArrayList<>(halls);
+        ordered.sort(Comparator
+                .comparingInt((Hall hall) -> rank.getOrDefault(hall.getHallName().toLowerCase(Locale.ROOT), Integer.MAX_VALUE))
+                .thenComparing(Hall::getHallName, String.CASE_INSENSITIVE_ORDER));
+        return ordered;
+    }
+}
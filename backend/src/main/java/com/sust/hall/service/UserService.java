@@ -3,34 +3,57 @@ package com.sust.hall.service;
 import com.sust.hall.dto.LoginRequest;
 import com.sust.hall.dto.RegisterRequest;
 import com.sust.hall.dto.Response;
+import com.sust.hall.dto.BulkUserActionRequest;
+import com.sust.hall.dto.BulkUserActionResult;
+import com.sust.hall.dto.CursorPage;
+import com.sust.hall.dto.UserSummaryDTO;
 import com.sust.hall.entity.User;
 import com.sust.hall.enums.AccountStatus;
 import com.sust.hall.enums.UserRole;
 import com.sust.hall.exeptions.BadRequestException;
+import com.sust.hall.repository.KeysetCursor;
 import com.sust.hall.repository.UserRepository;
+import com.sust.hall.repository.UserRepository.UserSort;
 import com.sust.hall.security.JwtUtils;
+import com.sust.hall.security.TokenRevocationRegistry;
 
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
 import com.sust.hall.exeptions.NotFoundException;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @Service
 @AllArgsConstructor
 @Slf4j
 public class UserService {
 
+    private static final Duration TOKEN_VERSION_POLL_OVERLAP = Duration.ofSeconds(30);
+
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     private final AuthenticationManager authManager;
     private final JwtUtils jwtUtils;
+    private final TokenRevocationRegistry tokenRevocations;
 
     // public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder) {
     //     this.userRepository = userRepository;
@@ -83,7 +106,7 @@ public class UserService {
         }
 
         // Generate JWT token
-        String token = jwtUtils.generateToken(user.getEmail(), user.getRole().name());
+        String token = jwtUtils.generateToken(user);
 
         return Response.builder()
                 .statusCode(HttpStatus.OK.value())
@@ -105,8 +128,12 @@ public class UserService {
         return userRepository.save(user);
     }
 
+    @Transactional
     public User updateUser(Long id, User userDetails) {
         User existingUser = getUserById(id);
+        boolean claimsChanged = !Objects.equals(existingUser.getEmail(), userDetails.getEmail())
+                || !Objects.equals(existingUser.getHallName(), userDetails.getHallName())
+                || existingUser.getRole() != userDetails.getRole();
         existingUser.setName(userDetails.getName());
         existingUser.setEmail(userDetails.getEmail());
         existingUser.setHallName(userDetails.getHallName());
@@ -117,23 +144,34 @@ public class UserService {
             existingUser.setPassword(passwordEncoder.encode(userDetails.getPassword()));
         }
 
-        return userRepository.save(existingUser);
+        User saved = userRepository.save(existingUser);
+        // Email, hall and role are carried in issued tokens, so those tokens must stop working
+        if (claimsChanged) {
+            saved.setTokenVersion(userRepository.incrementTokenVersion(id));
+        }
+        return saved;
     }
 
     
-    public List<User> getAllUsers() {
+    public List<UserSummaryDTO> getAllUsers() {
         return userRepository.findAllUsers();
     }
 
+    public CursorPage<UserSummaryDTO> getUserPage(String hallName, UserRole role, AccountStatus status,
+            UserSort sort, String cursor, Integer limit) {
+        return userRepository.findUserPage(hallName, role, status, sort != null ? sort : UserSort.NEWEST,
+                cursor, KeysetCursor.clampLimit(limit, 50, 200));
+    }
+
     public User getUserById(Long id) {
         return userRepository.findUserById(id);
     }
 
-    public List<User> getUsersByHall(String hallName) {
+    public List<UserSummaryDTO> getUsersByHall(String hallName) {
         return userRepository.findUsersByHall(hallName);
     }
 
-    public List<User> getUsersByRole(UserRole role) {
+    public List<UserSummaryDTO> getUsersByRole(UserRole role) {
         return userRepository.findUsersByRole(role);
     }
 
@@ -153,37 +191,132 @@ public class UserService {
         return userRepository.getUserStatisticsByHall();
     }
 
-    public List<User> getPendingUsers() {
+    public List<UserSummaryDTO> getPendingUsers() {
         return userRepository.findPendingUsers();
     }
 
-    public List<User> getUsersByStatus(AccountStatus status) {
+    public List<UserSummaryDTO> getUsersByStatus(AccountStatus status) {
         return userRepository.findUsersByAccountStatus(status);
     }
 
+    @Transactional
     public User approveUser(Long id) {
-        userRepository.updateUserStatus(id, AccountStatus.APPROVED);
-        return getUserById(id);
+        return changeStatus(id, AccountStatus.APPROVED);
     }
 
+    @Transactional
     public User rejectUser(Long id) {
-        userRepository.updateUserStatus(id, AccountStatus.REJECTED);
-        return getUserById(id);
+        return changeStatus(id, AccountStatus.REJECTED);
     }
 
+    @Transactional
     public User updateUserRole(Long id, UserRole role) {
-        userRepository.updateUserRole(id, role);
+        User current = getUserById(id);
+        if (current != null && current.getRole() != role) {
+            userRepository.updateUserRole(id, role);
+            userRepository.incrementTokenVersion(id);
+        }
         return getUserById(id);
     }
 
+    @Transactional
     public User suspendUser(Long id) {
-        userRepository.updateUserStatus(id, AccountStatus.SUSPENDED);
-        return getUserById(id);
+        return changeStatus(id, AccountStatus.SUSPENDED);
     }
 
+    @Transactional
     public User activateUser(Long id) {
-        userRepository.updateUserStatus(id, AccountStatus.APPROVED);
+        return changeStatus(id, AccountStatus.APPROVED);
+    }
+
+    // The status is carried in issued tokens, so every change revokes them
+    private User changeStatus(Long id, AccountStatus status) {
+        User current = getUserById(id);
+        if (current != null && current.getAccountStatus() != status) {
+            userRepository.updateUserStatus(id, status);
+            userRepository.incrementTokenVersion(id);
+        }
         return getUserById(id);
     }
 
+    @Transactional
+    public BulkUserActionResult bulkUpdateStatus(BulkUserActionRequest request, AccountStatus newStatus) {
+        List<Long> ids = resolveBulkTargets(request);
+        Map<Long, UserSummaryDTO> current = userRepository.findSummariesByIds(ids);
+        List<Long> changing = ids.stream()
+                .filter(id -> current.containsKey(id) && current.get(id).getAccountStatus() != newStatus)
+                .collect(Collectors.toList());
+
+        int updated = userRepository.bulkUpdateUserStatus(changing, newStatus);
+        userRepository.incrementTokenVersions(changing);
+        return bulkResult(ids, current.keySet(), changing, updated);
+    }
+
+    @Transactional
+    public BulkUserActionResult bulkUpdateRole(BulkUserActionRequest request) {
+        if (request.getRole() == null) {
+            throw new BadRequestException("role is required");
+        }
+        List<Long> ids = resolveBulkTargets(request);
+        Map<Long, UserSummaryDTO> current = userRepository.findSummariesByIds(ids);
+        List<Long> changing = ids.stream()
+                .filter(id -> current.containsKey(id) && current.get(id).getRole() != request.getRole())
+                .collect(Collectors.toList());
+
+        int updated = userRepository.bulkUpdateUserRole(changing, request.getRole());
+        userRepository.incrementTokenVersions(changing);
+        return bulkResult(ids, current.keySet(), changing, updated);
+    }
+
+    private List<Long> resolveBulkTargets(BulkUserActionRequest request) {
+        if (request.getUserIds() != null && !request.getUserIds().isEmpty()) {
+            return new ArrayList<>(new LinkedHashSet<>(request.getUserIds()));
+        }
+        if (request.getHallName() == null && request.getStatus() == null && request.getCurrentRole() == null) {
+            throw new BadRequestException("Either userIds or a filter (hallName, status, currentRole) is required");
+        }
+        return userRepository.findIdsByFilter(request.getHallName(), request.getStatus(), request.getCurrentRole());
+    }
+
+    private BulkUserActionResult bulkResult(List<Long> ids, Set<Long> found, List<Long> changing, int updated) {
+        Set<Long> changed = new HashSet<>(changing);
+        List<BulkUserActionResult.Outcome> outcomes = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            BulkUserActionResult.Status status = !found.contains(id) ? BulkUserActionResult.Status.NOT_FOUND
+                    : changed.contains(id) ? BulkUserActionResult.Status.UPDATED
+                    : BulkUserActionResult.Status.UNCHANGED;
+            outcomes.add(new BulkUserActionResult.Outcome(id, status));
+        }
+        return new BulkUserActionResult(ids.size(), updated, outcomes);
+    }
+
+    // Full reload of live user ids; also picks up deletions made by other instances
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${security.token-revocation.full-reload-ms:600000}",
+            initialDelayString = "${security.token-revocation.full-reload-ms:600000}")
+    public void reloadTokenRevocations() {
+        // Read the mark first, so bumps made during the reload are still polled afterwards
+        LocalDateTime latest = userRepository.findLatestTokenVersionChange().orElse(null);
+        tokenRevocations.loadLiveIds(userRepository.findAllIds());
+        tokenRevocations.updateVersions(userRepository.findBumpedTokenVersions());
+        tokenRevocations.advanceVersionsSeenUntil(latest);
+    }
+
+    // Keeps revocations made on other instances visible within seconds
+    @Scheduled(fixedDelayString = "${security.token-revocation.refresh-ms:5000}")
+    public void refreshTokenVersions() {
+        LocalDateTime seen = tokenRevocations.versionsSeenUntil();
+        // Re-read a short window, since a bump stamped earlier can commit after a later one was polled
+        List<UserRepository.TokenVersionChange> changes = userRepository.findTokenVersionChanges(
+                seen != null ? seen.minus(TOKEN_VERSION_POLL_OVERLAP) : null);
+        LocalDateTime latest = null;
+        for (UserRepository.TokenVersionChange change : changes) {
+            tokenRevocations.updateVersion(change.userId(), change.version());
+            if (latest == null || change.changedAt().isAfter(latest)) {
+                latest = change.changedAt();
+            }
+        }
+        tokenRevocations.advanceVersionsSeenUntil(latest);
+    }
+
 }
\ No newline at end of file
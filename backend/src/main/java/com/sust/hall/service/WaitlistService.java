@@ -0,0 +1,286 @@
+package com.sust.hall.service;
+
+import com.sust.hall.dto.WaitlistPositionDTO;
+import com.sust.hall.entity.Hall;
+import com.sust.hall.entity.User;
+import com.sust.hall.enums.AccountStatus;
+import com.sust.hall.enums.UserRole;
+import com.sust.hall.exeptions.BadRequestException;
+import com.sust.hall.exeptions.NotFoundException;
+import com.sust.hall.repository.UserRepository;
+import com.sust.hall.repository.WaitlistRepository;
+import com.sust.hall.service.HallRegistry.OccupancyChangedEvent;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Per-hall FIFO waitlists. hall_waitlist is the source of truth; each hall also
+ * has an in-memory queue in front of it so the head and a student's position are
+ * known without a query. When a committed write leaves free seats in a hall, the
+ * head entries are promoted one guarded UPDATE at a time, so concurrent
+ * check-outs can never hand out the same seat twice.
+ *
+ * Positions are O(1): every entry stores its absolute index in the hall's queue
+ * and the queue counts how many entries have left from the head. Leaving from
+ * the middle renumbers the entries behind it, which is the rare case.
+ *
+ * Writers hold the read side of {@code stateLock} while they change the queues
+ * and resync holds the write side while it reloads and swaps them, so no join,
+ * leave or promotion can land in a state that is about to be discarded.
+ */
+@Service
+public class WaitlistService {
+
+    private static final Logger logger = LoggerFactory.getLogger(WaitlistService.class);
+
+    private final WaitlistRepository waitlistRepository;
+    private final UserRepository userRepository;
+    private final HallRegistry hallRegistry;
+    private final TransactionTemplate newTransaction;
+
+    private final ReentrantReadWriteLock stateLock = new ReentrantReadWriteLock();
+    private volatile State state = new State();
+
+    public WaitlistService(WaitlistRepository waitlistRepository, UserRepository userRepository,
+            HallRegistry hallRegistry, PlatformTransactionManager transactionManager) {
+        this.waitlistRepository = waitlistRepository;
+        this.userRepository = userRepository;
+        this.hallRegistry = hallRegistry;
+        // Promotions can be triggered from another transaction's after-commit callback
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    public WaitlistPositionDTO join(Long hallId, Long userId) {
+        Hall hall = hallRegistry.findById(hallId)
+                .orElseThrow(() -> new NotFoundException("Hall not found with id: " + hallId));
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new NotFoundException("User not found with id: " + userId));
+        if (user.getRole() != UserRole.STUDENT || user.getAccountStatus() != AccountStatus.APPROVED) {
+            throw new BadRequestException("Only approved students can join a hall waitlist");
+        }
+        if (user.getHallName() != null && !user.getHallName().isBlank()) {
+            throw new BadRequestException("Student is already assigned to " + user.getHallName());
+        }
+
+        State current;
+        Entry entry;
+        stateLock.readLock().lock();
+        try {
+            current = state;
+            HallQueue queue = current.queueFor(hallId);
+            synchronized (queue) {
+                long entryId;
+                try {
+                    entryId = newTransaction.execute(tx -> waitlistRepository.insert(hallId, userId));
+                } catch (DuplicateKeyException e) {
+                    throw new BadRequestException("Student is already on a waitlist");
+                }
+                entry = queue.add(entryId, hallId, userId);
+                current.byUser.put(userId, entry);
+            }
+        } finally {
+            stateLock.readLock().unlock();
+        }
+
+        int free = hall.getCapacity() - hall.getCurrentOccupancy();
+        if (free > 0) {
+            promote(hallId, free);
+        }
+        return positionOf(current, entry);
+    }
+
+    public void leave(Long hallId, Long userId) {
+        stateLock.readLock().lock();
+        try {
+            State current = state;
+            Entry entry = current.byUser.get(userId);
+            if (entry == null || entry.hallId != hallId) {
+                throw new NotFoundException("Student is not on the waitlist of hall " + hallId);
+            }
+            HallQueue queue = current.queueFor(hallId);
+            synchronized (queue) {
+                newTransaction.executeWithoutResult(tx -> waitlistRepository.cancel(entry.id));
+                queue.remove(entry);
+                current.byUser.remove(userId, entry);
+            }
+        } finally {
+            stateLock.readLock().unlock();
+        }
+    }
+
+    public WaitlistPositionDTO getPosition(Long userId) {
+        State current = state;
+        Entry entry = current.byUser.get(userId);
+        if (entry == null) {
+            throw new NotFoundException("Student is not on any waitlist");
+        }
+        return positionOf(current, entry);
+    }
+
+    public int getWaitingCount(Long hallId) {
+        HallQueue queue = state.queues.get(hallId);
+        if (queue == null) {
+            return 0;
+        }
+        synchronized (queue) {
+            return queue.entries.size();
+        }
+    }
+
+    /** Promotes waiting students whenever a committed write leaves free seats. */
+    @EventListener
+    public void onOccupancyChanged(OccupancyChangedEvent event) {
+        int free = event.capacity() - event.occupancy();
+        if (free <= 0 || getWaitingCount(event.hallId()) == 0) {
+            return;
+        }
+        try {
+            promote(event.hallId(), free);
+        } catch (RuntimeException e) {
+            // The hall write itself has committed; the next change or resync retries
+            logger.warn("Waitlist promotion for hall {} failed", event.hallId(), e);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${hall.waitlist.resync-ms:300000}",
+            initialDelayString = "${hall.waitlist.resync-ms:300000}")
+    public void resync() {
+        stateLock.writeLock().lock();
+        try {
+            State loaded = new State();
+            waitlistRepository.forEachWaiting((entryId, hallId, userId) ->
+                    loaded.byUser.put(userId, loaded.queueFor(hallId).add(entryId, hallId, userId)));
+            state = loaded;
+        } catch (RuntimeException e) {
+            logger.warn("Could not load hall waitlists, keeping the current queues", e);
+        } finally {
+            stateLock.writeLock().unlock();
+        }
+    }
+
+    private void promote(long hallId, int freeSeats) {
+        int promoted = 0;
+        stateLock.readLock().lock();
+        try {
+            State current = state;
+            HallQueue queue = current.queueFor(hallId);
+            synchronized (queue) {
+                while (promoted < freeSeats && !queue.entries.isEmpty()) {
+                    Entry head = queue.entries.peekFirst();
+                    // Publishes inside the new transaction, whose commit runs the after-commit callbacks
+                    if (Boolean.TRUE.equals(newTransaction.execute(tx -> {
+                        if (!waitlistRepository.promote(head.id)) {
+                            return false;
+                        }
+                        userRepository.publishTokenVersions(List.of(head.userId));
+                        return true;
+                    }))) {
+                        promoted++;
+                    } else if (waitlistRepository.isHallFull(head.id).orElse(false)) {
+                        break;
+                    } else {
+                        // Closed elsewhere, or the student got a hall another way
+                        newTransaction.executeWithoutResult(tx -> waitlistRepository.cancel(head.id));
+                    }
+                    queue.removeHead();
+                    current.byUser.remove(head.userId, head);
+                }
+            }
+        } finally {
+            stateLock.readLock().unlock();
+        }
+        if (promoted > 0) {
+            logger.info("Promoted {} students from the waitlist of hall {}", promoted, hallId);
+            hallRegistry.refresh(hallId);
+        }
+    }
+
+    private WaitlistPositionDTO positionOf(State current, Entry entry) {
+        HallQueue queue = current.queueFor(entry.hallId);
+        synchronized (queue) {
+            long position = entry.removed ? 0 : entry.index - queue.removedFromHead + 1;
+            return new WaitlistPositionDTO(entry.userId, entry.hallId, position, queue.entries.size());
+        }
+    }
+
+    private static final class State {
+        final ConcurrentHashMap<Long, HallQueue> queues = new ConcurrentHashMap<>();
+        final ConcurrentHashMap<Long, Entry> byUser = new ConcurrentHashMap<>();
+
+        HallQueue queueFor(long hallId) {
+            return queues.computeIfAbsent(hallId, id -> new HallQueue());
+        }
+    }
+
+    // Guarded by its own monitor
+    private static final class HallQueue {
+        final ArrayDeque<Entry> entries = new ArrayDeque<>();
+        long removedFromHead;
+
+        Entry add(long entryId, long hallId, long userId) {
+            Entry entry = new Entry(entryId, hallId, userId, removedFromHead + entries.size());
+            entries.addLast(entry);
+            return entry;
+        }
+
+        void removeHead() {
+            entries.pollFirst().removed = true;
+            removedFromHead++;
+        }
+
+        void remove(Entry entry) {
+            if (entries.peekFirst() == entry) {
+                removeHead();
+                return;
+            }
+            List<Entry> behind = new ArrayList<>();
+            boolean found = false;
+            for (Iterator<Entry> it = entries.iterator(); it.hasNext(); ) {
+                Entry next = it.next();
+                if (found) {
+                    behind.add(next);
+                } else if (next == entry) {
+                    it.remove();
+                    found = true;
+                }
+            }
+            entry.removed = true;
+            for (Entry moved : behind) {
+                moved.index--;
+            }
+        }
+    }
+
+    private static final class Entry {
+        final long id;
+        final long hallId;
+        final long userId;
+        long index;
+        boolean removed;
+
+        Entry(long id, long hallId, long userId, long index) {
+            this.id = id;
+            this.hallId = hallId;
+            this.userId = userId;
+            this.index = index;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.sust.hall.repository;
+
+import com.sust.hall.entity.Complaint;
+import com.sust.hall.entity.User;
+import com.sust.hall.enums.AccountStatus;
+import com.sust.hall.enums.UserRole;
+import com.sust.hall.security.TokenRevocationRegistry;
+import com.sust.hall.security.UserPrincipalCache;
+import com.sust.hall.service.ComplaintServiceImpl;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+
+/**
+ * The complaint listings fetch users with the complaints and all notes with one
+ * IN query, so they cost two statements however many complaints they return.
+ */
+@Import({ ComplaintServiceImpl.class, UserRepository.class, UserPrincipalCache.class, TokenRevocationRegistry.class })
+class ComplaintListingStatementCountTest extends StatementCountTestSupport {
+
+    private static final String CATEGORY = "Electricity";
+
+    @Autowired
+    private ComplaintServiceImpl complaintService;
+
+    private User student;
+    private int userCount;
+
+    @BeforeEach
+    void setUp() {
+        student = entityManager.persist(user());
+    }
+
+    @Test
+    void getAllComplaintsUsesTwoStatements() {
+        assertConstantStatements(() -> complaintService.getAllComplaints(), 2);
+    }
+
+    @Test
+    void getComplaintsByStatusUsesTwoStatements() {
+        assertConstantStatements(() -> complaintService.getComplaintsByStatus("open"), 2);
+    }
+
+    @Test
+    void getComplaintsByCategoryUsesTwoStatements() {
+        assertConstantStatements(() -> complaintService.getComplaintsByCategory(CATEGORY), 2);
+    }
+
+    // The user check goes through JdbcTemplate, which Hibernate does not count
+    @Test
+    void getUserComplaintsUsesTwoStatements() {
+        assertConstantStatements(() -> complaintService.getUserComplaints(student.getId()), 2);
+    }
+
+    @Test
+    void getComplaintQueueUsesTwoStatements() {
+        assertConstantStatements(() -> complaintService.getComplaintQueue(null, null, null, null, null, null,
+                null, 200).getItems(), 2);
+    }
+
+    // Half the complaints belong to the student and half to a user of their own, each with two notes
+    @Override
+    protected void addRows(int count) {
+        for (int i = 0; i < count; i++) {
+            User owner = i % 2 == 0 ? student : entityManager.persist(user());
+            Complaint complaint = new Complaint("Fan not working", "The ceiling fan stopped", CATEGORY,
+                    Complaint.Priority.HIGH, owner);
+            complaint.addNote("Reported to the electrician", 1L);
+            complaint.addNote("Electrician visited", 1L);
+            entityManager.persist(complaint);
+        }
+    }
+
+    private User user() {
+        userCount++;
+        return new User("Student " + userCount, "student" + userCount + "@hall.test", "North", UserRole.STUDENT,
+                "secret", AccountStatus.APPROVED);
+    }
+}
@@ -0,0 +1,117 @@
+package com.sust.hall.repository;
+
+import com.sust.hall.entity.Hall;
+import com.sust.hall.entity.Meal;
+import com.sust.hall.enums.HallType;
+import com.sust.hall.enums.MealType;
+import com.sust.hall.repository.MealSearchRepository.MealSort;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * The meal listings read MealDTO rows in one statement, so the number of
+ * statements must not grow with the number of meals (or halls) listed.
+ */
+class MealRepositoryStatementCountTest extends StatementCountTestSupport {
+
+    @Autowired
+    private MealRepository mealRepository;
+
+    private Hall north;
+    private Hall south;
+    private final LocalDateTime today = LocalDate.now().atTime(8, 0);
+
+    @BeforeEach
+    void setUp() {
+        north = entityManager.persist(hall("North"));
+        south = entityManager.persist(hall("South"));
+    }
+
+    @Test
+    void findAllMealsUsesOneStatement() {
+        assertConstantStatements(() -> mealRepository.findAllMeals(), 1);
+    }
+
+    @Test
+    void findByHallIdUsesOneStatement() {
+        assertConstantStatements(() -> mealRepository.findByHallId(north.getId()), 1);
+    }
+
+    @Test
+    void findByHallIdAndMealTypeUsesOneStatement() {
+        assertConstantStatements(() -> mealRepository.findByHallIdAndMealType(north.getId(), MealType.LUNCH), 1);
+    }
+
+    @Test
+    void findTodaysMealsByHallIdUsesOneStatement() {
+        assertConstantStatements(() -> mealRepository.findTodaysMealsByHallId(north.getId()), 1);
+    }
+
+    @Test
+    void findMealsByHallAndDateRangeUsesOneStatement() {
+        assertConstantStatements(() -> mealRepository.findMealsByHallAndDateRange(north.getId(),
+                today.minusDays(1), today.plusDays(1)), 1);
+    }
+
+    @Test
+    void findAllAvailableMealsUsesOneStatement() {
+        assertConstantStatements(() -> mealRepository.findAllAvailableMeals(), 1);
+    }
+
+    @Test
+    void findAvailableMealsByHallIdUsesOneStatement() {
+        assertConstantStatements(() -> mealRepository.findAvailableMealsByHallId(north.getId()), 1);
+    }
+
+    @Test
+    void findByMealTypeUsesOneStatement() {
+        assertConstantStatements(() -> mealRepository.findByMealType(MealType.LUNCH), 1);
+    }
+
+    @Test
+    void searchMealsUsesOneStatement() {
+        assertConstantStatements(() -> mealRepository.searchMeals(north.getId(), null, null, null, true,
+                MealSort.NEWEST, null, 200).getItems(), 1);
+    }
+
+    // Every hall gets the same number of lunches, one per minute of today, so each listing matches all of them
+    @Override
+    protected void addRows(int perHall) {
+        for (Hall hall : List.of(north, south)) {
+            for (int i = 0; i < perHall; i++) {
+                Meal meal = new Meal();
+                meal.setHall(hall);
+                meal.setMealType(MealType.LUNCH);
+                meal.setMealName("Rice and dal");
+                meal.setPrice(60.0);
+                meal.setQuantity(100);
+                meal.setMealDate(today.plusMinutes(i));
+                meal.setIsAvailable(true);
+                entityManager.persist(meal);
+            }
+        }
+    }
+
+    private static Hall hall(String name) {
+        Hall hall = new Hall();
+        hall.setHallCode(name.toUpperCase());
+        hall.setHallName(name);
+        hall.setFullName(name + " Hall");
+        hall.setType(HallType.MALE);
+        hall.setCapacity(100);
+        hall.setCurrentOccupancy(0);
+        hall.setProvost("Provost");
+        hall.setEmail(name.toLowerCase() + "@hall.test");
+        hall.setPhone("0000");
+        hall.setOfficeLocation("Office");
+        hall.setOfficeHours("9-5");
+        hall.setIsActive(true);
+        return hall;
+    }
+}
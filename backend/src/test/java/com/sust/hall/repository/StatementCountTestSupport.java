@@ -0,0 +1,71 @@
+package com.sust.hall.repository;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Harness for listings that must cost a fixed number of statements: each
+ * listing runs once over {@link #FEW} fixtures and once over {@link #MANY}, and
+ * both runs must prepare the same, expected number of statements. Subclasses
+ * only supply the fixtures through {@link #addRows(int)}.
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:statements-${random.uuid};MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+abstract class StatementCountTestSupport {
+
+    protected static final int FEW = 1;
+    protected static final int MANY = 30;
+
+    @Autowired
+    protected TestEntityManager entityManager;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUpStatistics() {
+        statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+    }
+
+    /** Adds {@code count} more fixtures that every listing of the test returns. */
+    protected abstract void addRows(int count);
+
+    protected void assertConstantStatements(Supplier<List<?>> listing, int expectedStatements) {
+        addRows(FEW);
+        Run few = run(listing);
+        addRows(MANY - FEW);
+        Run many = run(listing);
+
+        assertThat(few.rows()).isPositive();
+        assertThat(many.rows()).isGreaterThan(few.rows());
+        assertThat(few.statements()).isEqualTo(expectedStatements);
+        assertThat(many.statements()).isEqualTo(few.statements());
+    }
+
+    // Runs the listing against a cleared persistence context, as a fresh request would
+    private Run run(Supplier<List<?>> listing) {
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+        int rows = listing.get().size();
+        return new Run(rows, statistics.getPrepareStatementCount());
+    }
+
+    private record Run(int rows, long statements) {
+    }
+}
@@ -0,0 +1,284 @@
+package com.sust.hall.service;
+
+import com.sust.hall.dto.MealReservationDTO;
+import com.sust.hall.entity.Hall;
+import com.sust.hall.entity.Meal;
+import com.sust.hall.entity.User;
+import com.sust.hall.enums.AccountStatus;
+import com.sust.hall.enums.HallType;
+import com.sust.hall.enums.MealType;
+import com.sust.hall.enums.UserRole;
+import com.sust.hall.exeptions.BadRequestException;
+import com.sust.hall.repository.MealReservationRepository;
+import com.sust.hall.repository.MealReservationRepository.ReservationWrite;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Runs the reservation service against a real schema. The writer thread commits
+ * in transactions of its own, so the tests run without a surrounding one and
+ * every fixture is committed before the service sees it.
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:meal-reservations;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class MealReservationServiceTest {
+
+    private static final AtomicInteger HALLS = new AtomicInteger();
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final List<MealReservationService> services = new ArrayList<>();
+    private Long mealId;
+
+    @BeforeEach
+    void setUp() {
+        mealId = new TransactionTemplate(transactionManager).execute(tx -> {
+            Hall hall = entityManager.persist(hall("Hall" + HALLS.incrementAndGet()));
+            Meal meal = new Meal();
+            meal.setHall(hall);
+            meal.setMealType(MealType.LUNCH);
+            meal.setMealName("Rice and dal");
+            meal.setPrice(60.0);
+            meal.setQuantity(50);
+            meal.setMealDate(LocalDate.now().atTime(13, 0));
+            meal.setIsAvailable(true);
+            return entityManager.persist(meal).getId();
+        });
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        for (MealReservationService service : services) {
+            service.stop();
+        }
+    }
+
+    @Test
+    void parallelClaimsNeverOversell() throws Exception {
+        MealReservationService service = start(new MealReservationRepository(jdbcTemplate));
+        int students = 200;
+        CountDownLatch go = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(32);
+        List<Future<Boolean>> claims = new ArrayList<>();
+        try {
+            for (long userId = 1; userId <= students; userId++) {
+                long id = userId;
+                claims.add(pool.submit(() -> {
+                    go.await();
+                    try {
+                        service.reserve(mealId, id, student(id));
+                        return true;
+                    } catch (BadRequestException e) {
+                        assertThat(e).hasMessage("Meal is sold out");
+                        return false;
+                    }
+                }));
+            }
+            go.countDown();
+            int granted = 0;
+            for (Future<Boolean> claim : claims) {
+                if (claim.get(30, TimeUnit.SECONDS)) {
+                    granted++;
+                }
+            }
+
+            assertThat(granted).isEqualTo(50);
+            assertThat(reservedCount()).isEqualTo(50);
+            assertThat(service.getRemaining(mealId)).isZero();
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    // Everything queued while the writer is held lands in one batch, including a claim the database rejects
+    @Test
+    void claimsAndCancelsInOneBatchAllPersistAndOnlyTheBadRowFails() throws Exception {
+        AtomicBoolean armed = new AtomicBoolean();
+        CountDownLatch writerHeld = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        MealReservationRepository repository = new MealReservationRepository(jdbcTemplate) {
+            @Override
+            public void insertReservations(List<ReservationWrite> writes) {
+                if (armed.compareAndSet(true, false)) {
+                    writerHeld.countDown();
+                    awaitQuietly(release);
+                }
+                super.insertReservations(writes);
+            }
+        };
+        MealReservationService service = start(repository);
+        for (long userId = 2; userId <= 8; userId += 2) {
+            service.reserve(mealId, userId, student(userId));
+        }
+        // Student 9 already holds a row the counter does not know about
+        jdbcTemplate.update("INSERT INTO meal_reservations (meal_id, user_id, active_user_id, status, reserved_at) "
+                + "VALUES (?, 9, 9, 'RESERVED', CURRENT_TIMESTAMP)", mealId);
+
+        armed.set(true);
+        CompletableFuture<MealReservationDTO> holder =
+                CompletableFuture.supplyAsync(() -> service.reserve(mealId, 1L, student(1L)));
+        assertThat(writerHeld.await(10, TimeUnit.SECONDS)).isTrue();
+
+        List<CompletableFuture<?>> ops = new ArrayList<>();
+        for (long userId = 2; userId <= 8; userId += 2) {
+            long cancelling = userId;
+            ops.add(queue(() -> service.cancel(mealId, cancelling)));
+            if (userId < 8) {
+                long claiming = userId + 1;
+                ops.add(queue(() -> service.reserve(mealId, claiming, student(claiming))));
+            }
+        }
+        CompletableFuture<?> duplicate = queue(() -> service.reserve(mealId, 9L, student(9L)));
+        release.countDown();
+
+        holder.get(10, TimeUnit.SECONDS);
+        for (CompletableFuture<?> op : ops) {
+            op.get(10, TimeUnit.SECONDS);
+        }
+        assertThatThrownBy(() -> duplicate.get(10, TimeUnit.SECONDS))
+                .hasCauseInstanceOf(BadRequestException.class);
+
+        assertThat(statuses()).containsExactlyInAnyOrderEntriesOf(Map.of(
+                1L, "RESERVED", 2L, "CANCELLED", 3L, "RESERVED", 4L, "CANCELLED", 5L, "RESERVED",
+                6L, "CANCELLED", 7L, "RESERVED", 8L, "CANCELLED", 9L, "RESERVED"));
+        // The counter never knew about student 9's row, so only the four earlier claims are still taken
+        assertThat(service.getRemaining(mealId)).isEqualTo(50 - 4);
+    }
+
+    @Test
+    void restartRecoversExactCounts() throws Exception {
+        MealReservationService first = start(new MealReservationRepository(jdbcTemplate));
+        for (long userId = 1; userId <= 6; userId++) {
+            first.reserve(mealId, userId, student(userId));
+        }
+        first.cancel(mealId, 2L);
+        first.cancel(mealId, 4L);
+        first.stop();
+        services.remove(first);
+
+        MealReservationService restarted = start(new MealReservationRepository(jdbcTemplate));
+
+        assertThat(restarted.getRemaining(mealId)).isEqualTo(50 - 4);
+        assertThatThrownBy(() -> restarted.reserve(mealId, 1L, student(1L)))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessage("Student has already reserved this meal");
+        restarted.reserve(mealId, 2L, student(2L));
+        restarted.cancel(mealId, 3L);
+        assertThat(restarted.getRemaining(mealId)).isEqualTo(50 - 4);
+        assertThat(reservedCount()).isEqualTo(4);
+    }
+
+    private MealReservationService start(MealReservationRepository repository) {
+        MealReservationService service = new MealReservationService(repository, new MealMenuCache(),
+                transactionManager, 1000, 500);
+        service.start();
+        services.add(service);
+        return service;
+    }
+
+    // Starts the call on its own thread and returns once it is parked waiting for the writer
+    private static CompletableFuture<?> queue(Runnable call) throws InterruptedException {
+        CompletableFuture<Void> result = new CompletableFuture<>();
+        Thread caller = new Thread(() -> {
+            try {
+                call.run();
+                result.complete(null);
+            } catch (RuntimeException e) {
+                result.completeExceptionally(e);
+            }
+        });
+        caller.start();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (caller.getState() != Thread.State.WAITING && !result.isDone() && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        return result;
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private int reservedCount() {
+        return jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM meal_reservations WHERE meal_id = ? AND status = 'RESERVED'", Integer.class, mealId);
+    }
+
+    // Latest status per student
+    private Map<Long, String> statuses() {
+        Map<Long, String> statuses = new HashMap<>();
+        jdbcTemplate.query("SELECT user_id, status FROM meal_reservations WHERE meal_id = ? ORDER BY id",
+                (RowCallbackHandler) rs -> statuses.put(rs.getLong("user_id"), rs.getString("status")), mealId);
+        return statuses;
+    }
+
+    private static User student(long id) {
+        User user = new User();
+        user.setId(id);
+        user.setRole(UserRole.STUDENT);
+        user.setAccountStatus(AccountStatus.APPROVED);
+        return user;
+    }
+
+    private static Hall hall(String name) {
+        Hall hall = new Hall();
+        hall.setHallCode(name.toUpperCase());
+        hall.setHallName(name);
+        hall.setFullName(name + " Hall");
+        hall.setType(HallType.MALE);
+        hall.setCapacity(100);
+        hall.setCurrentOccupancy(0);
+        hall.setProvost("Provost");
+        hall.setEmail(name.toLowerCase() + "@hall.test");
+        hall.setPhone("0000");
+        hall.setOfficeLocation("Office");
+        hall.setOfficeHours("9-5");
+        hall.setIsActive(true);
+        return hall;
+    }
+}